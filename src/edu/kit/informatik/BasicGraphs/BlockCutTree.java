@@ -0,0 +1,206 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.Arrays;
+
+/**
+ * The biconnected components (blocks) of a compact, undirected graph together
+ * with the cut vertices that join them. The blocks and the cut vertices form a
+ * tree and every path without cycles between two vertices stays inside of the
+ * blocks on the tree path between them, so the searches through all of these
+ * paths can leave out every other vertex. The blocks are found with the
+ * lowpoint algorithm by Hopcroft and Tarjan.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class BlockCutTree {
+
+    private final int vertexCount;
+    private final int[] blockOffsets;
+    private final int[] blockVertices;
+    private final int[] vertexOffsets;
+    private final int[] vertexBlocks;
+
+    private BlockCutTree(int vertexCount, int[] blockOffsets, int[] blockVertices) {
+        this.vertexCount = vertexCount;
+        this.blockOffsets = blockOffsets;
+        this.blockVertices = blockVertices;
+        this.vertexOffsets = new int[vertexCount + 1];
+        for (int vert : blockVertices) {
+            vertexOffsets[vert + 1]++;
+        }
+        for (int vert = 0; vert < vertexCount; vert++) {
+            vertexOffsets[vert + 1] += vertexOffsets[vert];
+        }
+        this.vertexBlocks = new int[blockVertices.length];
+        int[] fill = Arrays.copyOf(vertexOffsets, vertexCount);
+        for (int block = 0; block < blockOffsets.length - 1; block++) {
+            for (int i = blockOffsets[block]; i < blockOffsets[block + 1]; i++) {
+                vertexBlocks[fill[blockVertices[i]]++] = block;
+            }
+        }
+    }
+
+    /**
+     * Finds the blocks of a graph
+     *
+     * @param graph The graph. Every edge has to be stored for both of it's
+     * vertices
+     * @return The block-cut tree of the graph
+     */
+    public static BlockCutTree build(CompactGraph graph) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int count = graph.vertexCount();
+        int[] discovered = new int[count];
+        int[] low = new int[count];
+        int[] parents = new int[count];
+        int[] cursors = new int[count];
+        int[] callStack = new int[count];
+        int[] vertexStack = new int[count];
+        int vertexStackSize = 0;
+        int time = 0;
+        IntList blockOffsets = new IntList();
+        IntList blockVertices = new IntList();
+        blockOffsets.add(0);
+
+        for (int root = 0; root < count; root++) {
+            if (discovered[root] != 0) {
+                continue;
+            }
+            discovered[root] = ++time;
+            low[root] = time;
+            parents[root] = -1;
+            cursors[root] = offsets[root];
+            callStack[0] = root;
+            int callStackSize = 1;
+            vertexStack[vertexStackSize++] = root;
+
+            while (callStackSize > 0) {
+                int vert = callStack[callStackSize - 1];
+                if (cursors[vert] < offsets[vert + 1]) {
+                    int next = targets[cursors[vert]++];
+                    if (next == vert) {
+                        continue;
+                    }
+                    if (discovered[next] == 0) {
+                        discovered[next] = ++time;
+                        low[next] = time;
+                        parents[next] = vert;
+                        cursors[next] = offsets[next];
+                        callStack[callStackSize++] = next;
+                        vertexStack[vertexStackSize++] = next;
+                    } else if (next != parents[vert]) {
+                        low[vert] = Math.min(low[vert], discovered[next]);
+                    }
+                    continue;
+                }
+                callStackSize--;
+                int parent = parents[vert];
+                if (parent == -1) {
+                    vertexStackSize--;
+                    continue;
+                }
+                low[parent] = Math.min(low[parent], low[vert]);
+                if (low[vert] >= discovered[parent]) {
+                    int popped;
+                    do {
+                        popped = vertexStack[--vertexStackSize];
+                        blockVertices.add(popped);
+                    } while (popped != vert);
+                    blockVertices.add(parent);
+                    blockOffsets.add(blockVertices.size());
+                }
+            }
+        }
+        return new BlockCutTree(count, blockOffsets.toArray(), blockVertices.toArray());
+    }
+
+    /**
+     * Finds the vertices that can be on a path without cycles between two
+     * vertices. These are the vertices of the blocks on the path between the
+     * vertices in the block-cut tree.
+     *
+     * @param start The first vertex of the paths
+     * @param end The last vertex of the paths
+     * @return Array with true for every vertex that can not be on such a path.
+     * If there is no path at all every vertex is excluded
+     */
+    public boolean[] getExcludedVertices(int start, int end) {
+        boolean[] excluded = new boolean[vertexCount];
+        Arrays.fill(excluded, true);
+        if (start == end) {
+            excluded[start] = false;
+            return excluded;
+        }
+        int blockCount = blockOffsets.length - 1;
+        int[] previous = new int[blockCount + vertexCount];
+        Arrays.fill(previous, -2);
+        int[] queue = new int[blockCount + vertexCount];
+        int head = 0;
+        int tail = 0;
+        for (int i = vertexOffsets[start]; i < vertexOffsets[start + 1]; i++) {
+            previous[vertexBlocks[i]] = -1;
+            queue[tail++] = vertexBlocks[i];
+        }
+        int found = -1;
+        while (head < tail && found == -1) {
+            int node = queue[head++];
+            if (node < blockCount) {
+                for (int i = blockOffsets[node]; i < blockOffsets[node + 1]; i++) {
+                    int vert = blockVertices[i];
+                    if (vert == end) {
+                        found = node;
+                        break;
+                    }
+                    if (vertexOffsets[vert + 1] - vertexOffsets[vert] > 1
+                            && previous[blockCount + vert] == -2) {
+                        previous[blockCount + vert] = node;
+                        queue[tail++] = blockCount + vert;
+                    }
+                }
+            } else {
+                int vert = node - blockCount;
+                for (int i = vertexOffsets[vert]; i < vertexOffsets[vert + 1]; i++) {
+                    if (previous[vertexBlocks[i]] == -2) {
+                        previous[vertexBlocks[i]] = node;
+                        queue[tail++] = vertexBlocks[i];
+                    }
+                }
+            }
+        }
+        for (int node = found; node != -1; node = previous[node]) {
+            if (node < blockCount) {
+                for (int i = blockOffsets[node]; i < blockOffsets[node + 1]; i++) {
+                    excluded[blockVertices[i]] = false;
+                }
+            }
+        }
+        return excluded;
+    }
+
+    /**
+     * Growable list of ints for the blocks while they are found
+     */
+    private static final class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+}
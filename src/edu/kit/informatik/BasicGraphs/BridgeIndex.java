@@ -0,0 +1,502 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps track of the bridges (the edges whose removal splits a connected
+ * component) of an undirected graph while vertices and edges are added to it
+ * and taken out of it. The vertices are grouped into 2-edge-connected
+ * components with one union-find structure and into connected components with
+ * a second one. The 2-edge-connected components of a connected component form
+ * a tree and every edge of this tree is a bridge. A new edge inside of a
+ * connected component closes a cycle in the tree, so all of the components on
+ * the cycle are merged into one. A new edge between two connected components
+ * becomes a bridge and the smaller tree is hung below the bigger one. Every
+ * operation takes amortized O(log n) time.
+ * <p>
+ * When an edge inside of a 2-edge-connected component is removed, only that
+ * component is searched for it's new bridges and split up, the rest of the
+ * tree is not touched. When a bridge to a vertex without other edges is
+ * removed, the vertex leaves it's tree. A union-find structure can not give
+ * up a member, so every vertex lives in a slot and a vertex that leaves a
+ * tree or the index leaves it's slot behind, still pointing into the tree,
+ * and gets a new slot if it is added again. Other removals can not be
+ * followed and the index has to be built again, like when too many slots are
+ * left behind.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class BridgeIndex {
+
+    private int[] slots;
+    private int[] twoEdgeComponents;
+    private int[] components;
+    private int[] componentSizes;
+    private int[] parents;
+    private int[] lastVisits;
+    private int[] localIds;
+    private int slotCount;
+    private int vertexCount;
+    private int visitIteration;
+    private int componentCount;
+
+    /**
+     * Creates an index without vertices
+     */
+    public BridgeIndex() {
+        slots = new int[0];
+        twoEdgeComponents = new int[0];
+        components = new int[0];
+        componentSizes = new int[0];
+        parents = new int[0];
+        lastVisits = new int[0];
+        localIds = new int[0];
+    }
+
+    /**
+     *
+     * @return The count of the connected components of the graph
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     *
+     * @return true as long as the slots that were left behind by removed
+     * vertices are not more than the vertices. Otherwise the index should be
+     * built again
+     */
+    public boolean isCompact() {
+        return slotCount - vertexCount <= vertexCount;
+    }
+
+    /**
+     * Adds a vertex without edges
+     *
+     * @param vert The id of the vertex. The ids do not have to be dense but
+     * they should not be much bigger than the count of the vertices
+     */
+    public void addVertex(int vert) {
+        if (vert >= slots.length) {
+            int length = slots.length;
+            slots = Arrays.copyOf(slots, Math.max(vert + 1, length * 2));
+            Arrays.fill(slots, length, slots.length, -1);
+        }
+        slots[vert] = newSlot();
+        vertexCount++;
+        componentCount++;
+    }
+
+    private int newSlot() {
+        if (slotCount == parents.length) {
+            int capacity = Math.max(16, slotCount * 2);
+            twoEdgeComponents = Arrays.copyOf(twoEdgeComponents, capacity);
+            components = Arrays.copyOf(components, capacity);
+            componentSizes = Arrays.copyOf(componentSizes, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            lastVisits = Arrays.copyOf(lastVisits, capacity);
+            localIds = Arrays.copyOf(localIds, capacity);
+        }
+        int slot = slotCount++;
+        twoEdgeComponents[slot] = slot;
+        components[slot] = slot;
+        componentSizes[slot] = 1;
+        parents[slot] = -1;
+        lastVisits[slot] = 0;
+        return slot;
+    }
+
+    /**
+     * Removes a vertex that has no edges. It's id can be added again later.
+     *
+     * @param vert The id of the vertex
+     */
+    public void removeVertex(int vert) {
+        slots[vert] = -1;
+        vertexCount--;
+        componentCount--;
+    }
+
+    /**
+     * Adds an edge between two vertices that were already added
+     *
+     * @param vert1 The first vertex of the edge
+     * @param vert2 The second vertex of the edge
+     */
+    public void addEdge(int vert1, int vert2) {
+        int first = findTwoEdgeComponent(slots[vert1]);
+        int second = findTwoEdgeComponent(slots[vert2]);
+        if (first == second) {
+            return;
+        }
+        int firstComponent = findComponent(first);
+        int secondComponent = findComponent(second);
+        if (firstComponent != secondComponent) {
+            if (componentSizes[firstComponent] > componentSizes[secondComponent]) {
+                int swap = first;
+                first = second;
+                second = swap;
+                secondComponent = firstComponent;
+            }
+            makeRoot(first);
+            parents[first] = second;
+            components[first] = second;
+            componentSizes[secondComponent] += componentSizes[first];
+            componentCount--;
+        } else {
+            mergePath(first, second);
+        }
+    }
+
+    /**
+     * Takes an edge that was removed from the graph out of the index. An edge
+     * inside of a 2-edge-connected component only splits up that component.
+     * A bridge can only be followed if one of it's vertices has no edges
+     * left.
+     *
+     * @param vert1 The first vertex of the edge
+     * @param vert2 The second vertex of the edge
+     * @param neighbors Gives the neighbors of a vertex in the graph, which no
+     * longer has the edge
+     * @return false if the index can not follow the removal and has to be
+     * built again
+     */
+    public boolean removeEdge(int vert1, int vert2, IntFunction<int[]> neighbors) {
+        if (!isBridge(vert1, vert2)) {
+            splitTwoEdgeComponent(vert1, neighbors);
+            return true;
+        }
+        if (neighbors.apply(vert1).length == 0) {
+            detachLeaf(vert1, vert2);
+            return true;
+        }
+        if (neighbors.apply(vert2).length == 0) {
+            detachLeaf(vert2, vert1);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the edge between two vertices is a bridge. An edge is a bridge
+     * exactly when its vertices are in different 2-edge-connected components.
+     *
+     * @param vert1 The first vertex of the edge
+     * @param vert2 The second vertex of the edge
+     * @return true if there is an edge between the vertices and removing it
+     * would split its connected component into two
+     */
+    public boolean isBridge(int vert1, int vert2) {
+        return findTwoEdgeComponent(slots[vert1]) != findTwoEdgeComponent(slots[vert2]);
+    }
+
+    /**
+     * Takes a vertex whose only edge, a bridge to the other vertex, was
+     * removed out of it's tree. The old slot of the vertex joins the
+     * 2-edge-connected component of the other vertex, so everything that
+     * pointed to it still finds the tree, and the vertex gets a new slot.
+     */
+    private void detachLeaf(int leaf, int other) {
+        int slot = findTwoEdgeComponent(slots[leaf]);
+        int neighbor = findTwoEdgeComponent(slots[other]);
+        int root = findComponent(slot);
+        if (parents[slot] == -1) {
+            parents[neighbor] = -1;
+        }
+        twoEdgeComponents[slot] = neighbor;
+        if (root == slot) {
+            components[neighbor] = neighbor;
+            componentSizes[neighbor] = componentSizes[slot] - 1;
+        } else {
+            componentSizes[root]--;
+        }
+        slots[leaf] = newSlot();
+        componentCount++;
+    }
+
+    /**
+     * Finds the new 2-edge-connected components of the component of a vertex
+     * after an edge inside of it was removed, with a depth first search over
+     * the component only. The component that keeps the representative of the
+     * old parent bridge takes the place of the old one in the tree of the
+     * connected component, the other ones are hung below it along the new
+     * bridges and the old children in the tree are hung onto the new
+     * components that hold their bridges. All new components point to where
+     * the old one pointed in the union-find structure of the connected
+     * components, so no component points to one below it.
+     */
+    private void splitTwoEdgeComponent(int vert, IntFunction<int[]> neighbors) {
+        int representative = findTwoEdgeComponent(slots[vert]);
+        visitIteration++;
+        List<Integer> members = new ArrayList<>();
+        List<int[]> memberNeighbors = new ArrayList<>();
+        List<int[]> outerBridges = new ArrayList<>();
+        lastVisits[slots[vert]] = visitIteration;
+        localIds[slots[vert]] = 0;
+        members.add(vert);
+        for (int i = 0; i < members.size(); i++) {
+            int member = members.get(i);
+            int[] adjacent = neighbors.apply(member);
+            memberNeighbors.add(adjacent);
+            for (int next : adjacent) {
+                int slot = slots[next];
+                if (findTwoEdgeComponent(slot) != representative) {
+                    outerBridges.add(new int[] {i, findTwoEdgeComponent(slot)});
+                } else if (lastVisits[slot] != visitIteration) {
+                    lastVisits[slot] = visitIteration;
+                    localIds[slot] = members.size();
+                    members.add(next);
+                }
+            }
+        }
+
+        int size = members.size();
+        int[][] local = new int[size][];
+        int[] memberSlots = new int[size];
+        for (int i = 0; i < size; i++) {
+            memberSlots[i] = slots[members.get(i)];
+        }
+        for (int i = 0; i < size; i++) {
+            int[] adjacent = memberNeighbors.get(i);
+            int[] inner = new int[adjacent.length];
+            int count = 0;
+            for (int next : adjacent) {
+                int slot = slots[next];
+                if (lastVisits[slot] == visitIteration && localIds[slot] != i) {
+                    inner[count++] = localIds[slot];
+                }
+            }
+            local[i] = Arrays.copyOf(inner, count);
+        }
+
+        int[] labels = new int[size];
+        int[] treeParents = new int[size];
+        int labelCount = labelTwoEdgeComponents(local, labels, treeParents);
+
+        int[] representatives = new int[labelCount];
+        Arrays.fill(representatives, -1);
+        for (int i = 0; i < size; i++) {
+            if (memberSlots[i] == representative) {
+                representatives[labels[i]] = representative;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (representatives[labels[i]] == -1) {
+                representatives[labels[i]] = memberSlots[i];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            twoEdgeComponents[memberSlots[i]] = representatives[labels[i]];
+        }
+
+        int outerParent = parents[representative] == -1 ? -1 : findTwoEdgeComponent(parents[representative]);
+        int anchor = -1;
+        for (int i = 0; i < size; i++) {
+            if (memberSlots[i] == representative) {
+                anchor = labels[i];
+            }
+        }
+        for (int[] bridge : outerBridges) {
+            if (bridge[1] == outerParent) {
+                anchor = labels[bridge[0]];
+            } else {
+                parents[bridge[1]] = representatives[labels[bridge[0]]];
+            }
+        }
+
+        List<List<Integer>> labelTree = new ArrayList<>();
+        for (int label = 0; label < labelCount; label++) {
+            labelTree.add(new ArrayList<>());
+        }
+        for (int i = 0; i < size; i++) {
+            if (treeParents[i] != -1 && labels[treeParents[i]] != labels[i]) {
+                labelTree.get(labels[i]).add(labels[treeParents[i]]);
+                labelTree.get(labels[treeParents[i]]).add(labels[i]);
+            }
+        }
+        int[] queue = new int[labelCount];
+        boolean[] seen = new boolean[labelCount];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = anchor;
+        seen[anchor] = true;
+        parents[representatives[anchor]] = outerParent;
+        while (head < tail) {
+            int label = queue[head++];
+            for (int next : labelTree.get(label)) {
+                if (!seen[next]) {
+                    seen[next] = true;
+                    parents[representatives[next]] = representatives[label];
+                    queue[tail++] = next;
+                }
+            }
+        }
+        for (int label = 0; label < labelCount; label++) {
+            components[representatives[label]] = components[representative];
+        }
+    }
+
+    /**
+     * Labels the 2-edge-connected components of a small connected graph with
+     * an iterative depth first search. A vertex starts a new component exactly
+     * when the edge to it's parent in the search tree is a bridge.
+     *
+     * @param local The neighbors of every vertex
+     * @param labels Gets the component of every vertex
+     * @param treeParents Gets the parent of every vertex in the search tree,
+     * -1 for the root
+     * @return The count of the components
+     */
+    private static int labelTwoEdgeComponents(int[][] local, int[] labels, int[] treeParents) {
+        int size = local.length;
+        int[] discovered = new int[size];
+        int[] low = new int[size];
+        int[] order = new int[size];
+        int[] stack = new int[size];
+        int[] nextEdge = new int[size];
+        Arrays.fill(discovered, -1);
+        int time = 0;
+        int depth = 0;
+        stack[depth++] = 0;
+        treeParents[0] = -1;
+        discovered[0] = time;
+        low[0] = time;
+        order[time++] = 0;
+        while (depth > 0) {
+            int vert = stack[depth - 1];
+            if (nextEdge[vert] < local[vert].length) {
+                int next = local[vert][nextEdge[vert]++];
+                if (discovered[next] == -1) {
+                    treeParents[next] = vert;
+                    discovered[next] = time;
+                    low[next] = time;
+                    order[time++] = next;
+                    stack[depth++] = next;
+                } else if (next != treeParents[vert]) {
+                    low[vert] = Math.min(low[vert], discovered[next]);
+                }
+            } else {
+                depth--;
+                if (treeParents[vert] != -1) {
+                    low[treeParents[vert]] = Math.min(low[treeParents[vert]], low[vert]);
+                }
+            }
+        }
+        int labelCount = 0;
+        for (int i = 0; i < size; i++) {
+            int vert = order[i];
+            int parent = treeParents[vert];
+            if (parent == -1 || low[vert] > discovered[parent]) {
+                labels[vert] = labelCount++;
+            } else {
+                labels[vert] = labels[parent];
+            }
+        }
+        return labelCount;
+    }
+
+    private int findTwoEdgeComponent(int vert) {
+        if (vert == -1) {
+            return -1;
+        }
+        int root = vert;
+        while (twoEdgeComponents[root] != root) {
+            root = twoEdgeComponents[root];
+        }
+        while (twoEdgeComponents[vert] != root) {
+            int next = twoEdgeComponents[vert];
+            twoEdgeComponents[vert] = root;
+            vert = next;
+        }
+        return root;
+    }
+
+    private int findComponent(int vert) {
+        int root = findTwoEdgeComponent(vert);
+        while (components[root] != root) {
+            root = findTwoEdgeComponent(components[root]);
+        }
+        vert = findTwoEdgeComponent(vert);
+        while (vert != root) {
+            int next = findTwoEdgeComponent(components[vert]);
+            components[vert] = root;
+            vert = next;
+        }
+        return root;
+    }
+
+    /**
+     * Turns the tree of the 2-edge-connected components around so that the
+     * given component becomes its root
+     */
+    private void makeRoot(int vert) {
+        int root = vert;
+        int child = -1;
+        while (vert != -1) {
+            int parent = findTwoEdgeComponent(parents[vert]);
+            parents[vert] = child;
+            components[vert] = root;
+            child = vert;
+            vert = parent;
+        }
+        componentSizes[root] = componentSizes[child];
+    }
+
+    /**
+     * Merges all 2-edge-connected components on the tree path between two
+     * components, the bridges on it are no bridges anymore
+     */
+    private void mergePath(int first, int second) {
+        visitIteration++;
+        int[] firstPath = new int[16];
+        int[] secondPath = new int[16];
+        int firstLength = 0;
+        int secondLength = 0;
+        int ancestor = -1;
+        while (ancestor == -1) {
+            if (first != -1) {
+                first = findTwoEdgeComponent(first);
+                if (firstLength == firstPath.length) {
+                    firstPath = Arrays.copyOf(firstPath, firstLength * 2);
+                }
+                firstPath[firstLength++] = first;
+                if (lastVisits[first] == visitIteration) {
+                    ancestor = first;
+                    break;
+                }
+                lastVisits[first] = visitIteration;
+                first = parents[first];
+            }
+            if (second != -1) {
+                second = findTwoEdgeComponent(second);
+                if (secondLength == secondPath.length) {
+                    secondPath = Arrays.copyOf(secondPath, secondLength * 2);
+                }
+                secondPath[secondLength++] = second;
+                if (lastVisits[second] == visitIteration) {
+                    ancestor = second;
+                    break;
+                }
+                lastVisits[second] = visitIteration;
+                second = parents[second];
+            }
+        }
+        mergeInto(firstPath, firstLength, ancestor);
+        mergeInto(secondPath, secondLength, ancestor);
+    }
+
+    private void mergeInto(int[] path, int length, int ancestor) {
+        for (int i = 0; i < length; i++) {
+            twoEdgeComponents[path[i]] = ancestor;
+            if (path[i] == ancestor) {
+                break;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package edu.kit.informatik.BasicGraphs;
+
+/**
+ * A read only graph in compressed sparse row layout. The vertices are the ids
+ * 0..vertexCount()-1 and the neighbors of the vertex v are
+ * getTargets()[getOffsets()[v]] to getTargets()[getOffsets()[v + 1] - 1].
+ * Weights of the edges are kept in separate int arrays that are parallel to
+ * the targets array, so one graph can be weighted in different ways.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public interface CompactGraph {
+
+    /**
+     *
+     * @return The count of the vertices in the graph
+     */
+    int vertexCount();
+
+    /**
+     *
+     * @return Array with vertexCount() + 1 entries. The edges of the vertex v
+     * are stored between getOffsets()[v] (inclusive) and getOffsets()[v + 1]
+     * (exclusive)
+     */
+    int[] getOffsets();
+
+    /**
+     *
+     * @return The vertices that the edges point to
+     */
+    int[] getTargets();
+
+    /**
+     * Gives the block-cut tree of the graph, which the searches through all
+     * paths use to leave out the vertices that can not be on them. Graphs that
+     * do not change should keep the tree instead of building it on every call.
+     *
+     * @return The block-cut tree of the graph
+     */
+    default BlockCutTree getBlockCutTree() {
+        return BlockCutTree.build(this);
+    }
+
+}
@@ -0,0 +1,34 @@
+package edu.kit.informatik.BasicGraphs;
+
+import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
+
+/**
+ * A graph that knows its connected components without searching through it.
+ * The operations in GraphOperations use it to answer component queries
+ * directly and to skip searches between vertices that can not reach each
+ * other.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ * @param <T> The type of the vertices
+ */
+public interface Connectivity<T> {
+
+    /**
+     * Checks if there is a path between two vertices
+     *
+     * @param vert1 The first vertex
+     * @param vert2 The second vertex
+     * @return true if both vertices are in the same connected component
+     * @throws VertexDoesNotExistException If one of the vertices is not in the
+     * graph
+     */
+    boolean connected(T vert1, T vert2) throws VertexDoesNotExistException;
+
+    /**
+     *
+     * @return The count of the connected components of the graph
+     */
+    int getComponentCount();
+
+}
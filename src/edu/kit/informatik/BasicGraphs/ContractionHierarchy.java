@@ -0,0 +1,489 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction hierarchy of a compact, undirected graph. While preprocessing,
+ * the vertices are removed ('contracted') one after another and every shortest
+ * path that went through a removed vertex is kept with a shortcut edge between
+ * it's neighbors. A query then only has to follow edges to vertices that were
+ * contracted later than the current one, from both ends of the path, which
+ * settles just a tiny part of the graph.
+ *
+ * The preprocessing contracts independent sets of vertices (no two of them are
+ * neighbors) on all cores at once.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class ContractionHierarchy {
+
+    /**
+     * The count of vertices after which a witness search gives up. Giving up
+     * only adds a few unnecessary shortcuts.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final int[] ranks;
+    private final int[] upOffsets;
+    private final int[] upTargets;
+    private final int[] upWeights;
+    private final int[] upMiddles;
+    private final ThreadLocal<QueryScratch> scratch;
+
+    private ContractionHierarchy(int[] ranks, int[] upOffsets, int[] upTargets, int[] upWeights, int[] upMiddles) {
+        this.ranks = ranks;
+        this.upOffsets = upOffsets;
+        this.upTargets = upTargets;
+        this.upWeights = upWeights;
+        this.upMiddles = upMiddles;
+        this.scratch = ThreadLocal.withInitial(() -> new QueryScratch(ranks.length));
+    }
+
+    /**
+     * Builds the hierarchy of a graph
+     *
+     * @param graph The graph. Every edge has to be stored for both of it's
+     * vertices
+     * @param weights The weights of the edges of the graph
+     * @return The hierarchy or null if the graph has negative weights, for which
+     * shortest paths can not be contracted
+     */
+    public static ContractionHierarchy build(CompactGraph graph, int[] weights) {
+        for (int weight : weights) {
+            if (weight < 0) {
+                return null;
+            }
+        }
+        return new Builder(graph, weights).build();
+    }
+
+    /**
+     *
+     * @return The count of the vertices of the hierarchy
+     */
+    public int vertexCount() {
+        return ranks.length;
+    }
+
+    /**
+     * Finds the shortest path between two vertices with an upward search from
+     * both of them. The shortcuts on the found path are unpacked, so the
+     * returned path only uses edges of the original graph.
+     *
+     * @param start The id of the starting vertex of the path
+     * @param end The id of the vertex with which the path should end
+     * @return The ids of the vertices on the path or null if the end vertex can
+     * not be reached from the start vertex
+     */
+    public int[] findPath(int start, int end) {
+        if (start == end) {
+            return new int[]{start};
+        }
+        QueryScratch query = scratch.get();
+        try {
+            query.start(0, start);
+            query.start(1, end);
+            long best = Long.MAX_VALUE;
+            int meeting = -1;
+            while (true) {
+                int side = -1;
+                for (int i = 0; i < 2; i++) {
+                    if (!query.queues[i].isEmpty() && query.queues[i].peekKey() < best
+                            && (side == -1 || query.queues[i].peekKey() < query.queues[side].peekKey())) {
+                        side = i;
+                    }
+                }
+                if (side == -1) {
+                    break;
+                }
+                int choosen = query.queues[side].poll();
+                int other = query.distances[1 - side][choosen];
+                if (other != Integer.MAX_VALUE && (long) query.distances[side][choosen] + other < best) {
+                    best = (long) query.distances[side][choosen] + other;
+                    meeting = choosen;
+                }
+                for (int edge = upOffsets[choosen]; edge < upOffsets[choosen + 1]; edge++) {
+                    query.relax(side, choosen, upTargets[edge], query.distances[side][choosen] + upWeights[edge]);
+                }
+            }
+            if (meeting == -1) {
+                return null;
+            }
+
+            List<Integer> upward = new ArrayList<>();
+            for (int vert = meeting; vert != -1; vert = query.predecessors[0][vert]) {
+                upward.add(vert);
+            }
+            Collections.reverse(upward);
+            for (int vert = query.predecessors[1][meeting]; vert != -1; vert = query.predecessors[1][vert]) {
+                upward.add(vert);
+            }
+            List<Integer> path = new ArrayList<>();
+            path.add(upward.get(0));
+            for (int i = 0; i < upward.size() - 1; i++) {
+                unpack(upward.get(i), upward.get(i + 1), path);
+            }
+            return path.stream().mapToInt(Integer::intValue).toArray();
+        } finally {
+            query.reset();
+        }
+    }
+
+    /**
+     * Replaces a (shortcut) edge with the original edges that it stands for and
+     * adds all vertices of it except the first one to the path
+     */
+    private void unpack(int from, int to, List<Integer> path) {
+        int[] stack = new int[16];
+        int size = 0;
+        stack[size++] = to;
+        int current = from;
+        while (size > 0) {
+            int next = stack[size - 1];
+            int middle = getMiddle(current, next);
+            if (middle == -1) {
+                path.add(next);
+                current = next;
+                size--;
+            } else {
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                }
+                stack[size++] = middle;
+            }
+        }
+    }
+
+    private int getMiddle(int vert1, int vert2) {
+        int lower = ranks[vert1] < ranks[vert2] ? vert1 : vert2;
+        int higher = lower == vert1 ? vert2 : vert1;
+        for (int edge = upOffsets[lower]; edge < upOffsets[lower + 1]; edge++) {
+            if (upTargets[edge] == higher) {
+                return upMiddles[edge];
+            }
+        }
+        throw new IllegalStateException("There is no edge between " + vert1 + " and " + vert2 + " in the hierarchy");
+    }
+
+    /**
+     * The per thread arrays of the two upward searches of a query. Only the
+     * touched entries are reset after a query, so a query does not cost O(V).
+     */
+    private static final class QueryScratch {
+
+        private final int[][] distances;
+        private final int[][] predecessors;
+        private final IndexedMinHeap[] queues;
+        private final int[][] touched;
+        private final int[] touchedCount;
+
+        QueryScratch(int vertexCount) {
+            distances = new int[2][vertexCount];
+            predecessors = new int[2][vertexCount];
+            queues = new IndexedMinHeap[]{new IndexedMinHeap(vertexCount), new IndexedMinHeap(vertexCount)};
+            touched = new int[2][vertexCount];
+            touchedCount = new int[2];
+            for (int side = 0; side < 2; side++) {
+                Arrays.fill(distances[side], Integer.MAX_VALUE);
+                Arrays.fill(predecessors[side], -1);
+            }
+        }
+
+        void start(int side, int vert) {
+            distances[side][vert] = 0;
+            touched[side][touchedCount[side]++] = vert;
+            queues[side].insertOrDecrease(vert, 0);
+        }
+
+        void relax(int side, int from, int to, int dist) {
+            if (dist < distances[side][to]) {
+                if (distances[side][to] == Integer.MAX_VALUE) {
+                    touched[side][touchedCount[side]++] = to;
+                }
+                distances[side][to] = dist;
+                predecessors[side][to] = from;
+                queues[side].insertOrDecrease(to, dist);
+            }
+        }
+
+        void reset() {
+            for (int side = 0; side < 2; side++) {
+                for (int i = 0; i < touchedCount[side]; i++) {
+                    distances[side][touched[side][i]] = Integer.MAX_VALUE;
+                    predecessors[side][touched[side][i]] = -1;
+                }
+                touchedCount[side] = 0;
+                queues[side].clear();
+            }
+        }
+    }
+
+    /**
+     * The state of the graph while it is being contracted
+     */
+    private static final class Builder {
+
+        private final int vertexCount;
+        private final int[][] adjacentTo;
+        private final int[][] adjacentWeight;
+        private final int[][] adjacentMiddle;
+        private final int[] degree;
+        private final boolean[] contracted;
+        private final int[] ranks;
+        private final int[] priorities;
+        private final int[] contractedNeighbors;
+        private final ThreadLocal<WitnessScratch> scratch;
+
+        Builder(CompactGraph graph, int[] weights) {
+            vertexCount = graph.vertexCount();
+            adjacentTo = new int[vertexCount][];
+            adjacentWeight = new int[vertexCount][];
+            adjacentMiddle = new int[vertexCount][];
+            degree = new int[vertexCount];
+            contracted = new boolean[vertexCount];
+            ranks = new int[vertexCount];
+            priorities = new int[vertexCount];
+            contractedNeighbors = new int[vertexCount];
+            scratch = ThreadLocal.withInitial(() -> new WitnessScratch(vertexCount));
+
+            int[] offsets = graph.getOffsets();
+            int[] targets = graph.getTargets();
+            for (int vert = 0; vert < vertexCount; vert++) {
+                int count = Math.max(offsets[vert + 1] - offsets[vert], 1);
+                adjacentTo[vert] = new int[count];
+                adjacentWeight[vert] = new int[count];
+                adjacentMiddle[vert] = new int[count];
+            }
+            for (int vert = 0; vert < vertexCount; vert++) {
+                for (int edge = offsets[vert]; edge < offsets[vert + 1]; edge++) {
+                    if (targets[edge] != vert) {
+                        addHalfEdge(vert, targets[edge], weights[edge], -1);
+                    }
+                }
+            }
+        }
+
+        ContractionHierarchy build() {
+            int[] active = IntStream.range(0, vertexCount).toArray();
+            IntStream.of(active).parallel().forEach(vert -> priorities[vert] = computePriority(vert));
+            int nextRank = 0;
+            while (active.length > 0) {
+                int[] independent = IntStream.of(active).parallel().filter(this::isLocalMinimum).toArray();
+                // the witness paths must not go through any vertex of the set,
+                // they all disappear at once
+                for (int vert : independent) {
+                    contracted[vert] = true;
+                }
+                int[][] shortcuts = new int[independent.length][];
+                IntStream.range(0, independent.length).parallel()
+                        .forEach(i -> shortcuts[i] = findShortcuts(independent[i]));
+
+                boolean[] dirty = new boolean[vertexCount];
+                for (int i = 0; i < independent.length; i++) {
+                    int vert = independent[i];
+                    ranks[vert] = nextRank++;
+                    for (int j = 0; j < shortcuts[i].length; j += 3) {
+                        addHalfEdge(shortcuts[i][j], shortcuts[i][j + 1], shortcuts[i][j + 2], vert);
+                        addHalfEdge(shortcuts[i][j + 1], shortcuts[i][j], shortcuts[i][j + 2], vert);
+                    }
+                    for (int k = 0; k < degree[vert]; k++) {
+                        int neighbor = adjacentTo[vert][k];
+                        if (!contracted[neighbor]) {
+                            contractedNeighbors[neighbor]++;
+                            dirty[neighbor] = true;
+                        }
+                    }
+                }
+                active = IntStream.of(active).filter(vert -> !contracted[vert]).toArray();
+                IntStream.of(active).parallel().filter(vert -> dirty[vert])
+                        .forEach(vert -> priorities[vert] = computePriority(vert));
+            }
+            return buildUpwardGraph();
+        }
+
+        private ContractionHierarchy buildUpwardGraph() {
+            int[] offsets = new int[vertexCount + 1];
+            for (int vert = 0; vert < vertexCount; vert++) {
+                int count = 0;
+                for (int k = 0; k < degree[vert]; k++) {
+                    if (ranks[adjacentTo[vert][k]] > ranks[vert]) {
+                        count++;
+                    }
+                }
+                offsets[vert + 1] = offsets[vert] + count;
+            }
+            int[] targets = new int[offsets[vertexCount]];
+            int[] weights = new int[offsets[vertexCount]];
+            int[] middles = new int[offsets[vertexCount]];
+            for (int vert = 0; vert < vertexCount; vert++) {
+                int index = offsets[vert];
+                for (int k = 0; k < degree[vert]; k++) {
+                    if (ranks[adjacentTo[vert][k]] > ranks[vert]) {
+                        targets[index] = adjacentTo[vert][k];
+                        weights[index] = adjacentWeight[vert][k];
+                        middles[index] = adjacentMiddle[vert][k];
+                        index++;
+                    }
+                }
+            }
+            return new ContractionHierarchy(ranks, offsets, targets, weights, middles);
+        }
+
+        /**
+         * Adds an edge to the adjacency of one vertex or lowers the weight of
+         * the already existing one
+         */
+        private void addHalfEdge(int from, int to, int weight, int middle) {
+            for (int k = 0; k < degree[from]; k++) {
+                if (adjacentTo[from][k] == to) {
+                    if (weight < adjacentWeight[from][k]) {
+                        adjacentWeight[from][k] = weight;
+                        adjacentMiddle[from][k] = middle;
+                    }
+                    return;
+                }
+            }
+            if (degree[from] == adjacentTo[from].length) {
+                int capacity = adjacentTo[from].length * 2;
+                adjacentTo[from] = Arrays.copyOf(adjacentTo[from], capacity);
+                adjacentWeight[from] = Arrays.copyOf(adjacentWeight[from], capacity);
+                adjacentMiddle[from] = Arrays.copyOf(adjacentMiddle[from], capacity);
+            }
+            adjacentTo[from][degree[from]] = to;
+            adjacentWeight[from][degree[from]] = weight;
+            adjacentMiddle[from][degree[from]] = middle;
+            degree[from]++;
+        }
+
+        private boolean isLocalMinimum(int vert) {
+            for (int k = 0; k < degree[vert]; k++) {
+                int neighbor = adjacentTo[vert][k];
+                if (!contracted[neighbor] && (priorities[neighbor] < priorities[vert]
+                        || (priorities[neighbor] == priorities[vert] && neighbor < vert))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The priority is the edge difference (added shortcuts minus removed
+         * edges) plus the count of the already contracted neighbors, which
+         * spreads the contraction evenly over the graph. The vertex is not
+         * contracted yet, so it is left out of the witness searches by hand,
+         * like it would be left out when it is really contracted.
+         */
+        private int computePriority(int vert) {
+            int edges = 0;
+            for (int k = 0; k < degree[vert]; k++) {
+                if (!contracted[adjacentTo[vert][k]]) {
+                    edges++;
+                }
+            }
+            return findShortcuts(vert).length / 3 - edges + contractedNeighbors[vert];
+        }
+
+        /**
+         * Finds the shortcuts that are needed when a vertex is contracted. The
+         * witness paths never go through the vertex itself.
+         *
+         * @return Triples of the two vertices and the weight of every shortcut
+         */
+        private int[] findShortcuts(int vert) {
+            int[] neighbors = new int[degree[vert]];
+            int[] neighborWeights = new int[degree[vert]];
+            int count = 0;
+            int maxWeight = 0;
+            for (int k = 0; k < degree[vert]; k++) {
+                if (!contracted[adjacentTo[vert][k]]) {
+                    neighbors[count] = adjacentTo[vert][k];
+                    neighborWeights[count] = adjacentWeight[vert][k];
+                    maxWeight = Math.max(maxWeight, adjacentWeight[vert][k]);
+                    count++;
+                }
+            }
+
+            int[] shortcuts = new int[0];
+            int shortcutCount = 0;
+            WitnessScratch witness = scratch.get();
+            for (int i = 0; i < count - 1; i++) {
+                long limit = (long) neighborWeights[i] + maxWeight;
+                witness.search(this, neighbors[i], vert, limit);
+                for (int j = i + 1; j < count; j++) {
+                    long viaVert = (long) neighborWeights[i] + neighborWeights[j];
+                    if (witness.distances[neighbors[j]] > viaVert) {
+                        if (shortcutCount == shortcuts.length) {
+                            shortcuts = Arrays.copyOf(shortcuts, Math.max(6, shortcuts.length * 2));
+                        }
+                        shortcuts[shortcutCount++] = neighbors[i];
+                        shortcuts[shortcutCount++] = neighbors[j];
+                        shortcuts[shortcutCount++] = (int) viaVert;
+                    }
+                }
+                witness.reset();
+            }
+            return Arrays.copyOf(shortcuts, shortcutCount);
+        }
+    }
+
+    /**
+     * The per thread arrays of the local Dijkstra searches that look for paths
+     * which make a shortcut unnecessary
+     */
+    private static final class WitnessScratch {
+
+        private final long[] distances;
+        private final IndexedMinHeap queue;
+        private final int[] touched;
+        private int touchedCount;
+
+        WitnessScratch(int vertexCount) {
+            distances = new long[vertexCount];
+            queue = new IndexedMinHeap(vertexCount);
+            touched = new int[vertexCount];
+            Arrays.fill(distances, Long.MAX_VALUE);
+        }
+
+        void search(Builder graph, int source, int excluded, long limit) {
+            distances[source] = 0;
+            touched[touchedCount++] = source;
+            queue.insertOrDecrease(source, 0);
+            int settled = 0;
+            while (!queue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int vert = queue.poll();
+                settled++;
+                if (distances[vert] > limit) {
+                    break;
+                }
+                for (int k = 0; k < graph.degree[vert]; k++) {
+                    int next = graph.adjacentTo[vert][k];
+                    if (graph.contracted[next] || next == excluded) {
+                        continue;
+                    }
+                    long dist = distances[vert] + graph.adjacentWeight[vert][k];
+                    if (dist < distances[next] && dist <= limit) {
+                        if (distances[next] == Long.MAX_VALUE) {
+                            touched[touchedCount++] = next;
+                        }
+                        distances[next] = dist;
+                        queue.insertOrDecrease(next, dist);
+                    }
+                }
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = Long.MAX_VALUE;
+            }
+            touchedCount = 0;
+            queue.clear();
+        }
+    }
+
+}
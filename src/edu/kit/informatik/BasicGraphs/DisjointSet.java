@@ -0,0 +1,106 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.Arrays;
+
+/**
+ * Union-find structure over integer ids. Every id belongs to exactly one set
+ * and two sets can be merged. The sets are kept as trees that are merged by
+ * size and flattened on every lookup (path compression), so finding the set of
+ * an id takes nearly constant amortized time.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class DisjointSet {
+
+    private int[] parents;
+    private int[] sizes;
+    private int setCount;
+
+    /**
+     * Creates a structure without ids
+     */
+    public DisjointSet() {
+        parents = new int[0];
+        sizes = new int[0];
+    }
+
+    /**
+     * Adds an id in a set of it's own
+     *
+     * @param id The id. The ids do not have to be dense but they should not be
+     * much bigger than the count of the ids
+     */
+    public void add(int id) {
+        if (id >= parents.length) {
+            int capacity = Math.max(id + 1, parents.length * 2);
+            parents = Arrays.copyOf(parents, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        parents[id] = id;
+        sizes[id] = 1;
+        setCount++;
+    }
+
+    /**
+     * Finds the representative of the set of an id
+     *
+     * @param id An id that was added
+     * @return The id that represents the whole set
+     */
+    public int find(int id) {
+        int root = id;
+        while (parents[root] != root) {
+            root = parents[root];
+        }
+        while (parents[id] != root) {
+            int next = parents[id];
+            parents[id] = root;
+            id = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merges the sets of two ids
+     *
+     * @param id1 The first id
+     * @param id2 The second id
+     * @return true if the ids were in different sets before
+     */
+    public boolean union(int id1, int id2) {
+        int root1 = find(id1);
+        int root2 = find(id2);
+        if (root1 == root2) {
+            return false;
+        }
+        if (sizes[root1] < sizes[root2]) {
+            int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        parents[root2] = root1;
+        sizes[root1] += sizes[root2];
+        setCount--;
+        return true;
+    }
+
+    /**
+     *
+     * @param id1 The first id
+     * @param id2 The second id
+     * @return true if the ids are in the same set
+     */
+    public boolean connected(int id1, int id2) {
+        return find(id1) == find(id2);
+    }
+
+    /**
+     *
+     * @return The count of the sets
+     */
+    public int getSetCount() {
+        return setCount;
+    }
+
+}
@@ -0,0 +1,126 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The distances between all pairs of vertices of a compact, undirected graph
+ * together with the next vertex on a best path for every pair. The tables are
+ * filled by one Dijkstra search from every vertex, run in parallel. A search
+ * from the vertex t gives the distance of every vertex to t and the
+ * predecessor of every vertex in the search tree, which is the next vertex on
+ * the way from that vertex to t. Paths are then followed hop by hop in time
+ * proportional to their length.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class DistanceTable {
+
+    /**
+     * Graphs with more vertices get no table, as it needs two ints for every
+     * pair of vertices
+     */
+    public static final int MAX_VERTICES = 2048;
+
+    private final int vertexCount;
+    private final int[] distances;
+    private final int[] nextHops;
+
+    private DistanceTable(int vertexCount, int[] distances, int[] nextHops) {
+        this.vertexCount = vertexCount;
+        this.distances = distances;
+        this.nextHops = nextHops;
+    }
+
+    /**
+     * Fills the tables for a graph
+     *
+     * @param graph The graph. Every edge has to be stored for both of it's
+     * vertices
+     * @param weights The weights of the edges of the graph
+     * @return The tables or null if the graph has more than MAX_VERTICES
+     * vertices or negative weights
+     */
+    public static DistanceTable build(CompactGraph graph, int[] weights) {
+        int count = graph.vertexCount();
+        if (count > MAX_VERTICES) {
+            return null;
+        }
+        for (int weight : weights) {
+            if (weight < 0) {
+                return null;
+            }
+        }
+        int[] distances = new int[count * count];
+        int[] nextHops = new int[count * count];
+        IntStream.range(0, count).parallel()
+                .forEach(target -> search(graph, weights, target, distances, nextHops));
+        return new DistanceTable(count, distances, nextHops);
+    }
+
+    /**
+     * Dijkstra search from the target that fills the row of the target
+     */
+    private static void search(CompactGraph graph, int[] weights, int target, int[] distances, int[] nextHops) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int count = graph.vertexCount();
+        int row = target * count;
+        Arrays.fill(distances, row, row + count, Integer.MAX_VALUE);
+        Arrays.fill(nextHops, row, row + count, -1);
+        IndexedMinHeap queue = new IndexedMinHeap(count);
+        distances[row + target] = 0;
+        queue.insertOrDecrease(target, 0);
+        while (!queue.isEmpty()) {
+            int choosen = queue.poll();
+            for (int edge = offsets[choosen]; edge < offsets[choosen + 1]; edge++) {
+                int next = targets[edge];
+                int dist = distances[row + choosen] + weights[edge];
+                if (dist < distances[row + next]) {
+                    distances[row + next] = dist;
+                    nextHops[row + next] = choosen;
+                    queue.insertOrDecrease(next, dist);
+                }
+            }
+        }
+    }
+
+    /**
+     *
+     * @param start The first vertex
+     * @param end The second vertex
+     * @return The distance between the vertices or Integer.MAX_VALUE if they
+     * are not connected
+     */
+    public int getDistance(int start, int end) {
+        return distances[end * vertexCount + start];
+    }
+
+    /**
+     * Follows the next vertices from the start to the end
+     *
+     * @param start The id of the first vertex of the path
+     * @param end The id of the last vertex of the path
+     * @return The ids of the vertices on a best path or null if there is no
+     * path
+     */
+    public int[] findPath(int start, int end) {
+        int row = end * vertexCount;
+        if (distances[row + start] == Integer.MAX_VALUE) {
+            return null;
+        }
+        int length = 1;
+        for (int vert = start; vert != end; vert = nextHops[row + vert]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int index = 0;
+        for (int vert = start; vert != end; vert = nextHops[row + vert]) {
+            path[index++] = vert;
+        }
+        path[index] = end;
+        return path;
+    }
+
+}
@@ -0,0 +1,56 @@
+package edu.kit.informatik.BasicGraphs;
+
+/**
+ * The ways in which all paths between two vertices can be enumerated
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public enum EnumerationMode {
+
+    /**
+     * A single depth-first search that gives out the paths one after another
+     * as they are found
+     */
+    SEQUENTIAL("dfs"),
+    /**
+     * Depth-first search on all cores. The paths are given out in the same
+     * order as by the sequential search, but only after all of them are found
+     */
+    ORDERED("ordered"),
+    /**
+     * Depth-first search on all cores. The paths are given out as soon as they
+     * are found, in no particular order
+     */
+    PARALLEL("parallel");
+
+    private final String name;
+
+    EnumerationMode(String name) {
+        this.name = name;
+    }
+
+    /**
+     *
+     * @return The name of the mode as used in the commands
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds an enumeration mode by it's name
+     *
+     * @param name The name of the mode
+     * @return The mode or null if there is no mode with this name
+     */
+    public static EnumerationMode fromName(String name) {
+        for (EnumerationMode mode : values()) {
+            if (mode.name.equals(name)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+}
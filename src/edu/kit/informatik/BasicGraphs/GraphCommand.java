@@ -1,7 +1,8 @@
 
 package edu.kit.informatik.BasicGraphs;
 
-import edu.kit.informatik.Utils.ErrorHandler;
+import edu.kit.informatik.Utils.CommandOutput;
+import java.util.function.UnaryOperator;
 
 /**
  *
@@ -13,18 +14,34 @@ import edu.kit.informatik.Utils.ErrorHandler;
  */
 public class GraphCommand<T, G extends Graph<T>> {
 
-    private final TriConsumer<String[], G, ErrorHandler> action;
+    private final TriConsumer<String[], G, CommandOutput> action;
     private final int argCount;
+    private final UnaryOperator<String> normalizer;
+
+    /**
+     * Creates a basic command that can perform some kind of action on a graph.
+     * The arguments are turned into lower case
+     *
+     * @param action The action that should be performed
+     * @param argCount The count of the arguments that the operation takes
+     */
+    public GraphCommand(TriConsumer<String[], G, CommandOutput> action, int argCount) {
+        this(action, argCount, String::toLowerCase);
+    }
 
     /**
      * Creates a basic command that can perform some kind of action on a graph
      *
      * @param action The action that should be performed
      * @param argCount The count of the arguments that the operation takes
+     * @param normalizer Turns every argument into the form that the action
+     * takes, for example the kept name of a city
      */
-    public GraphCommand(TriConsumer<String[], G, ErrorHandler> action, int argCount) {
+    public GraphCommand(TriConsumer<String[], G, CommandOutput> action, int argCount,
+            UnaryOperator<String> normalizer) {
         this.action = action;
         this.argCount = argCount;
+        this.normalizer = normalizer;
     }
 
     /**
@@ -32,18 +49,17 @@ public class GraphCommand<T, G extends Graph<T>> {
      *
      * @param graph The graph on which the action should be executed
      * @param args The arguments of the actions
-     * @param errorHandler Error handler that can take care of errors during the
-     * execution of the action
+     * @param output Takes the output and the errors of the action
      */
-    public void execute(G graph, String args[], ErrorHandler errorHandler) {
+    public void execute(G graph, String args[], CommandOutput output) {
         if (args.length != argCount) {
             throw new IllegalArgumentException("The command takes exactly " + argCount + " argument(s)");
         }
-        String loweredArgs[] = new String[args.length];
+        String normalizedArgs[] = new String[args.length];
         for (int i = 0; i < args.length; i++) {
-            loweredArgs[i] = args[i].toLowerCase();
+            normalizedArgs[i] = normalizer.apply(args[i]);
         }
-        action.accept(loweredArgs, graph, errorHandler);
+        action.accept(normalizedArgs, graph, output);
 
     }
 
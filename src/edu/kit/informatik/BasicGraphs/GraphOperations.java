@@ -3,10 +3,20 @@ package edu.kit.informatik.BasicGraphs;
 import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -20,7 +30,9 @@ public final class GraphOperations {
 
     /**
      * Operations that finds the optimal path in a given graph with a given
-     * weighting strategy of the graph using the Dijkstra algorithm
+     * weighting strategy of the graph using the Dijkstra algorithm. The
+     * vertices are kept in an indexed binary heap, so a search takes O((V + E)
+     * log V) time.
      *
      * @param <X> Base type of the graph
      * @param <T> The type of the graph
@@ -30,7 +42,8 @@ public final class GraphOperations {
      * @param endVert The vertex with which the path should end
      * @param weightStrategy The weighting strategy of the graph with which are
      * measured the distances between vertices
-     * @return Array of objects that represent the found path;
+     * @return Array of objects that represent the found path or null if the
+     * end vertex can not be reached from the start vertex
      * @throws VertexDoesNotExistException If the start or end vertex does not
      * exist
      */
@@ -44,47 +57,52 @@ public final class GraphOperations {
         if (!graph.contains(startVert)) {
             throw new VertexDoesNotExistException("There is no vertex with the name " + startVert + " in the graph");
         }
-
-        List<X> queue = new ArrayList<>();
-        Map<X, Integer> distances = new HashMap<>();
-        List<X> pathSoFar = new ArrayList<>();
+        if (!mayBeConnected(graph, startVert, endVert)) {
+            return null;
+        }
 
         List<X> vertices = graph.vertices();
+        Map<X, Integer> ids = new HashMap<>();
         for (int i = 0; i < vertices.size(); i++) {
-            queue.add(vertices.get(i));
-            distances.put(vertices.get(i), Integer.MAX_VALUE);
+            ids.put(vertices.get(i), i);
         }
 
-        distances.put(startVert, 0);
+        int[] distances = new int[vertices.size()];
+        int[] predecessors = new int[vertices.size()];
+        boolean[] settled = new boolean[vertices.size()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        Arrays.fill(predecessors, -1);
 
-        while (!queue.isEmpty()) {
-            X choosen = queue.get(0);
-            int best = distances.get(choosen);
-
-            for (int i = 1; i < queue.size(); i++) {
-                X newU = queue.get(i);
-                int newBest = distances.get(newU);
-                if (best > newBest) {
-                    best = newBest;
-                    choosen = newU;
-                }
-            }
+        IndexedMinHeap queue = new IndexedMinHeap(vertices.size());
+        int start = ids.get(startVert);
+        int end = ids.get(endVert);
+        distances[start] = 0;
+        queue.insertOrDecrease(start, 0);
 
-            pathSoFar.add(choosen);
-            if (choosen.equals(endVert)) {
-                return pathSoFar.toArray();
+        while (!queue.isEmpty()) {
+            int choosen = queue.poll();
+            if (choosen == end) {
+                return buildPath(vertices, predecessors, end);
             }
-            queue.remove(choosen);
-            List<X> neighbors = graph.neighbors(choosen);
+            settled[choosen] = true;
+            X choosenVert = vertices.get(choosen);
+            List<X> neighbors = graph.neighbors(choosenVert);
 
             for (int i = 0; i < neighbors.size(); i++) {
                 X nextNeigbor = neighbors.get(i);
-                if (queue.contains(nextNeigbor)) {
-                    int dist = distances.get(choosen) + weightStrategy.getWeigth(choosen, nextNeigbor);
-                    if (dist < distances.get(nextNeigbor)) {
-                        distances.put(nextNeigbor, dist);
-
-                    }
+                int next = ids.get(nextNeigbor);
+                if (settled[next]) {
+                    continue;
+                }
+                int weight = weightStrategy.getWeigth(choosenVert, nextNeigbor);
+                if (weight == Integer.MAX_VALUE) {
+                    continue;
+                }
+                int dist = distances[choosen] + weight;
+                if (dist < distances[next]) {
+                    distances[next] = dist;
+                    predecessors[next] = choosen;
+                    queue.insertOrDecrease(next, dist);
                 }
             }
 
@@ -93,6 +111,27 @@ public final class GraphOperations {
         return null;
     }
 
+    /**
+     * Follows the predecessors of a vertex back to the start of the search
+     *
+     * @param <X> Base type of the graph
+     * @param vertices The vertices of the graph by their index
+     * @param predecessors The index of the predecessor of every vertex or -1
+     * @param end The index of the last vertex of the path
+     * @return Array of objects that represent the path
+     */
+    private static <X> Object[] buildPath(List<X> vertices, int[] predecessors, int end) {
+        int length = 0;
+        for (int vert = end; vert != -1; vert = predecessors[vert]) {
+            length++;
+        }
+        Object[] path = new Object[length];
+        for (int vert = end; vert != -1; vert = predecessors[vert]) {
+            path[--length] = vertices.get(vert);
+        }
+        return path;
+    }
+
     /**
      * Convenient method for getOptimalPathDijkstra when the graph implements a
      * single weighting strategy on it's own
@@ -132,6 +171,9 @@ public final class GraphOperations {
             throw new VertexDoesNotExistException("There is no vertex with the name " + startVert + " in the graph");
         }
         List<Object[]> paths = new ArrayList<>();
+        if (!mayBeConnected(graph, startVert, endVert)) {
+            return paths;
+        }
         dfs(graph, startVert, endVert, new ArrayList<>(), new ArrayList<>(), paths);
         return paths;
     }
@@ -180,7 +222,8 @@ public final class GraphOperations {
      * @param endVert The vertex with which the path should end
      * @param weightStrategy The weighting strategy of the graph with which are
      * measured the distances between vertices
-     * @return Array of objects that represent the found path
+     * @return Array of objects that represent the found path or null if the
+     * end vertex can not be reached from the start vertex
      * @throws VertexDoesNotExistException If the start or end vertex does not
      * exist
      */
@@ -194,6 +237,9 @@ public final class GraphOperations {
             throw new VertexDoesNotExistException("There is no vertex with the name " + startVert + " in the graph");
         }
         List<Object[]> allPaths = getAllPathsDFS(graph, startVert, endVert);
+        if (allPaths.isEmpty()) {
+            return null;
+        }
         int best = getPathLenth(allPaths.get(0), weightStrategy);
         int bestIndex = 0;
         for (int i = 1; i < allPaths.size(); i++) {
@@ -207,6 +253,103 @@ public final class GraphOperations {
 
     }
 
+    /**
+     * Operations that finds the same path as getOptimalPathDFS without
+     * enumerating all of the paths between the vertices. The distances to the
+     * end vertex are found with the Dijkstra algorithm and then the path is
+     * walked from the start vertex always taking the first neighbor (in the
+     * order of graph.neighbors) that lies on an optimal path. This is exactly
+     * the optimal path that the depth first search would find first. If the
+     * graph has edges with a weight that is not positive, the method falls
+     * back to getOptimalPathDFS as the walk could then run into cycles.
+     *
+     * @param <X> Base type of the graph
+     * @param <T> The type of the graph
+     * @param <S> The type of the weighting strategy
+     * @param graph The graph on which the operation should be executed
+     * @param startVert The starting vertex of the path
+     * @param endVert The vertex with which the path should end
+     * @param weightStrategy The weighting strategy of the graph with which are
+     * measured the distances between vertices
+     * @return Array of objects that represent the found path or null if the
+     * end vertex can not be reached from the start vertex
+     * @throws VertexDoesNotExistException If the start or end vertex does not
+     * exist
+     */
+    public static <X, T extends Graph<X>, S extends GraphWeightStrategy<X, T>> Object[]
+            getOptimalPathOrdered(T graph, X startVert, X endVert, S weightStrategy)
+            throws VertexDoesNotExistException {
+        if (!graph.contains(endVert)) {
+            throw new VertexDoesNotExistException("There is no vertex with the name " + endVert + " in the graph");
+        }
+        if (!graph.contains(startVert)) {
+            throw new VertexDoesNotExistException("There is no vertex with the name " + startVert + " in the graph");
+        }
+        if (!mayBeConnected(graph, startVert, endVert)) {
+            return null;
+        }
+
+        List<X> vertices = graph.vertices();
+        Map<X, Integer> ids = new HashMap<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.put(vertices.get(i), i);
+        }
+        int start = ids.get(startVert);
+        int end = ids.get(endVert);
+
+        int[] distances = new int[vertices.size()];
+        boolean[] settled = new boolean[vertices.size()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        IndexedMinHeap queue = new IndexedMinHeap(vertices.size());
+        distances[end] = 0;
+        queue.insertOrDecrease(end, 0);
+
+        while (!queue.isEmpty()) {
+            int choosen = queue.poll();
+            settled[choosen] = true;
+            if (choosen == start) {
+                break;
+            }
+            X choosenVert = vertices.get(choosen);
+            List<X> neighbors = graph.neighbors(choosenVert);
+            for (int i = 0; i < neighbors.size(); i++) {
+                int next = ids.get(neighbors.get(i));
+                if (settled[next]) {
+                    continue;
+                }
+                int weight = weightStrategy.getWeigth(choosenVert, neighbors.get(i));
+                if (weight <= 0) {
+                    return getOptimalPathDFS(graph, startVert, endVert, weightStrategy);
+                }
+                if (weight != Integer.MAX_VALUE && distances[choosen] + weight < distances[next]) {
+                    distances[next] = distances[choosen] + weight;
+                    queue.insertOrDecrease(next, distances[next]);
+                }
+            }
+        }
+        if (!settled[start]) {
+            return null;
+        }
+
+        List<X> path = new ArrayList<>();
+        int current = start;
+        path.add(startVert);
+        while (current != end) {
+            X currentVert = vertices.get(current);
+            List<X> neighbors = graph.neighbors(currentVert);
+            for (int i = 0; i < neighbors.size(); i++) {
+                int next = ids.get(neighbors.get(i));
+                if (settled[next] && distances[next]
+                        + weightStrategy.getWeigth(currentVert, neighbors.get(i)) == distances[current]) {
+                    current = next;
+                    path.add(neighbors.get(i));
+                    break;
+                }
+            }
+        }
+        return path.toArray();
+    }
+
     /**
      * Convenient method for getOptimalPathDFS when the graph implements a
      * weight strategy on it's own *
@@ -216,7 +359,8 @@ public final class GraphOperations {
      * @param graph The graph on which the operation should be executed
      * @param startVert The starting vertex of the path
      * @param endVert The vertex with which the path should end
-     * @return Array of objects that represent the found path
+     * @return Array of objects that represent the found path or null if the
+     * end vertex can not be reached from the start vertex
      * @throws VertexDoesNotExistException If the start or end vertex does not
      * exist
      */
@@ -250,6 +394,494 @@ public final class GraphOperations {
 
     }
 
+    /**
+     * Operations that finds the optimal path in a compact graph with the
+     * Dijkstra algorithm
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param start The id of the starting vertex of the path
+     * @param end The id of the vertex with which the path should end
+     * @param weights The weights of the edges of the graph
+     * @return The ids of the vertices on the path or null if the end vertex can
+     * not be reached from the start vertex
+     */
+    public static int[] getOptimalPathDijkstra(CompactGraph graph, int start, int end, int[] weights) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] distances = new int[graph.vertexCount()];
+        int[] predecessors = new int[graph.vertexCount()];
+        boolean[] settled = new boolean[graph.vertexCount()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        Arrays.fill(predecessors, -1);
+
+        IndexedMinHeap queue = new IndexedMinHeap(graph.vertexCount());
+        distances[start] = 0;
+        queue.insertOrDecrease(start, 0);
+
+        while (!queue.isEmpty()) {
+            int choosen = queue.poll();
+            if (choosen == end) {
+                return buildPath(predecessors, end);
+            }
+            settled[choosen] = true;
+            for (int edge = offsets[choosen]; edge < offsets[choosen + 1]; edge++) {
+                int next = targets[edge];
+                if (settled[next]) {
+                    continue;
+                }
+                int dist = distances[choosen] + weights[edge];
+                if (dist < distances[next]) {
+                    distances[next] = dist;
+                    predecessors[next] = choosen;
+                    queue.insertOrDecrease(next, dist);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Operations that finds the optimal path in a compact, undirected graph
+     * with two Dijkstra searches that run at the same time, one from the
+     * start and one from the end vertex. The search stops as soon as the sum
+     * of the smallest distances in both queues is not smaller than the best
+     * path seen where the two searches touch, which is the case long before
+     * either of them has settled the whole graph.
+     *
+     * @param graph The graph on which the operation should be executed. Every
+     * edge has to be stored for both of its vertices
+     * @param start The id of the starting vertex of the path
+     * @param end The id of the vertex with which the path should end
+     * @param weights The weights of the edges of the graph
+     * @return The ids of the vertices on the path or null if the end vertex can
+     * not be reached from the start vertex
+     */
+    public static int[] getOptimalPathBidirectional(CompactGraph graph, int start, int end, int[] weights) {
+        if (start == end) {
+            return new int[]{start};
+        }
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[][] distances = new int[2][graph.vertexCount()];
+        int[][] predecessors = new int[2][graph.vertexCount()];
+        boolean[][] settled = new boolean[2][graph.vertexCount()];
+        IndexedMinHeap[] queues = {new IndexedMinHeap(graph.vertexCount()), new IndexedMinHeap(graph.vertexCount())};
+        for (int side = 0; side < 2; side++) {
+            Arrays.fill(distances[side], Integer.MAX_VALUE);
+            Arrays.fill(predecessors[side], -1);
+        }
+        distances[0][start] = 0;
+        queues[0].insertOrDecrease(start, 0);
+        distances[1][end] = 0;
+        queues[1].insertOrDecrease(end, 0);
+
+        long best = Long.MAX_VALUE;
+        int[] meeting = new int[2];
+        while (!queues[0].isEmpty() && !queues[1].isEmpty()
+                && queues[0].peekKey() + queues[1].peekKey() < best) {
+            int side = queues[0].size() <= queues[1].size() ? 0 : 1;
+            int other = 1 - side;
+            int choosen = queues[side].poll();
+            settled[side][choosen] = true;
+            for (int edge = offsets[choosen]; edge < offsets[choosen + 1]; edge++) {
+                int next = targets[edge];
+                int dist = distances[side][choosen] + weights[edge];
+                if (distances[other][next] != Integer.MAX_VALUE
+                        && (long) dist + distances[other][next] < best) {
+                    best = (long) dist + distances[other][next];
+                    meeting[side] = choosen;
+                    meeting[other] = next;
+                }
+                if (!settled[side][next] && dist < distances[side][next]) {
+                    distances[side][next] = dist;
+                    predecessors[side][next] = choosen;
+                    queues[side].insertOrDecrease(next, dist);
+                }
+            }
+        }
+        if (best == Long.MAX_VALUE) {
+            return null;
+        }
+
+        int[] forward = buildPath(predecessors[0], meeting[0]);
+        int[] backward = buildPath(predecessors[1], meeting[1]);
+        int[] path = Arrays.copyOf(forward, forward.length + backward.length);
+        for (int i = 0; i < backward.length; i++) {
+            path[forward.length + i] = backward[backward.length - 1 - i];
+        }
+        return path;
+    }
+
+    /**
+     * Operations that finds the optimal path in a compact graph with the A*
+     * algorithm. The remaining distance to the end vertex is estimated with
+     * the precomputed distances to a few landmarks and the triangle
+     * inequality, which steers the search towards the end vertex.
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param start The id of the starting vertex of the path
+     * @param end The id of the vertex with which the path should end
+     * @param weights The weights of the edges of the graph
+     * @param landmarks The landmark distances for the same graph and weights
+     * @return The ids of the vertices on the path or null if the end vertex can
+     * not be reached from the start vertex
+     */
+    public static int[] getOptimalPathALT(CompactGraph graph, int start, int end, int[] weights,
+            LandmarkIndex landmarks) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] distances = new int[graph.vertexCount()];
+        int[] predecessors = new int[graph.vertexCount()];
+        boolean[] settled = new boolean[graph.vertexCount()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        Arrays.fill(predecessors, -1);
+
+        IndexedMinHeap queue = new IndexedMinHeap(graph.vertexCount());
+        distances[start] = 0;
+        queue.insertOrDecrease(start, landmarks.getLowerBound(start, end));
+
+        while (!queue.isEmpty()) {
+            int choosen = queue.poll();
+            if (choosen == end) {
+                return buildPath(predecessors, end);
+            }
+            settled[choosen] = true;
+            for (int edge = offsets[choosen]; edge < offsets[choosen + 1]; edge++) {
+                int next = targets[edge];
+                if (settled[next]) {
+                    continue;
+                }
+                int dist = distances[choosen] + weights[edge];
+                if (dist < distances[next]) {
+                    distances[next] = dist;
+                    predecessors[next] = choosen;
+                    queue.insertOrDecrease(next, dist + landmarks.getLowerBound(next, end));
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the distances from one vertex of a compact graph to all of the
+     * others with the Dijkstra algorithm
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param start The id of the vertex from which the distances are measured
+     * @param weights The weights of the edges of the graph
+     * @return The distance to every vertex or Integer.MAX_VALUE for the
+     * vertices that can not be reached
+     */
+    public static int[] getDistances(CompactGraph graph, int start, int[] weights) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] distances = new int[graph.vertexCount()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        IndexedMinHeap queue = new IndexedMinHeap(graph.vertexCount());
+        distances[start] = 0;
+        queue.insertOrDecrease(start, 0);
+        relaxAll(offsets, targets, weights, distances, queue);
+        return distances;
+    }
+
+    /**
+     * Finds the distances from one vertex of a compact graph to a few others.
+     * The Dijkstra search stops as soon as all of them are settled.
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param start The id of the vertex from which the distances are measured
+     * @param ends The ids of the vertices to which the distances are measured
+     * @param weights The weights of the edges of the graph
+     * @return The distance to every one of the given vertices (in the same
+     * order) or Integer.MAX_VALUE for the ones that can not be reached
+     */
+    public static int[] getDistances(CompactGraph graph, int start, int[] ends, int[] weights) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] distances = new int[graph.vertexCount()];
+        boolean[] wanted = new boolean[graph.vertexCount()];
+        int remaining = 0;
+        for (int end : ends) {
+            if (!wanted[end]) {
+                wanted[end] = true;
+                remaining++;
+            }
+        }
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        IndexedMinHeap queue = new IndexedMinHeap(graph.vertexCount());
+        distances[start] = 0;
+        queue.insertOrDecrease(start, 0);
+        while (!queue.isEmpty() && remaining > 0) {
+            int choosen = queue.poll();
+            if (wanted[choosen]) {
+                remaining--;
+            }
+            for (int edge = offsets[choosen]; edge < offsets[choosen + 1]; edge++) {
+                int next = targets[edge];
+                int dist = distances[choosen] + weights[edge];
+                if (dist < distances[next]) {
+                    distances[next] = dist;
+                    queue.insertOrDecrease(next, dist);
+                }
+            }
+        }
+        int[] found = new int[ends.length];
+        for (int i = 0; i < ends.length; i++) {
+            found[i] = distances[ends[i]];
+        }
+        return found;
+    }
+
+    /**
+     * Finds the distances between every one of a list of origins and every one
+     * of a list of destinations in a compact graph. There is one search for
+     * every distinct origin and the searches run in parallel on the common
+     * fork/join pool. The rows of the matrix are handed out in the order of
+     * the origins, each one as soon as it and all rows before it are done.
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param origins The ids of the vertices from which the distances are
+     * measured
+     * @param destinations The ids of the vertices to which the distances are
+     * measured
+     * @param weights The weights of the edges of the graph
+     * @param rows Gets the distances from every origin to all destinations, or
+     * Integer.MAX_VALUE for the destinations that can not be reached
+     */
+    public static void forEachDistanceRow(CompactGraph graph, int[] origins, int[] destinations, int[] weights,
+            Consumer<int[]> rows) {
+        Map<Integer, CompletableFuture<int[]>> searches = new HashMap<>();
+        for (int origin : origins) {
+            searches.computeIfAbsent(origin,
+                    o -> CompletableFuture.supplyAsync(() -> getDistances(graph, o, destinations, weights)));
+        }
+        for (int origin : origins) {
+            rows.accept(searches.get(origin).join());
+        }
+    }
+
+    /**
+     * Lowers the distances of the vertices until no edge can lower them
+     * anymore, starting from the vertices that are in the queue. The distances
+     * of the other vertices have to be reachable upper bounds of the real ones.
+     *
+     * @param offsets The offsets of the edges of the graph
+     * @param targets The targets of the edges of the graph
+     * @param weights The weights of the edges of the graph
+     * @param distances The distances of the vertices that should be lowered
+     * @param queue The vertices whose distance was lowered last
+     */
+    static void relaxAll(int[] offsets, int[] targets, int[] weights, int[] distances, IndexedMinHeap queue) {
+        while (!queue.isEmpty()) {
+            int choosen = queue.poll();
+            for (int edge = offsets[choosen]; edge < offsets[choosen + 1]; edge++) {
+                int next = targets[edge];
+                int dist = distances[choosen] + weights[edge];
+                if (dist < distances[next]) {
+                    distances[next] = dist;
+                    queue.insertOrDecrease(next, dist);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the same path in a compact graph as the depth first search over
+     * all paths would, by walking the optimal paths found by the Dijkstra
+     * algorithm in the order of the edges of the graph. See the other
+     * getOptimalPathOrdered.
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param start The id of the starting vertex of the path
+     * @param end The id of the vertex with which the path should end
+     * @param weights The weights of the edges of the graph
+     * @return The ids of the vertices on the path or null if the end vertex can
+     * not be reached from the start vertex
+     */
+    public static int[] getOptimalPathOrdered(CompactGraph graph, int start, int end, int[] weights) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[] distances = new int[graph.vertexCount()];
+        boolean[] settled = new boolean[graph.vertexCount()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        IndexedMinHeap queue = new IndexedMinHeap(graph.vertexCount());
+        distances[end] = 0;
+        queue.insertOrDecrease(end, 0);
+
+        while (!queue.isEmpty()) {
+            int choosen = queue.poll();
+            settled[choosen] = true;
+            if (choosen == start) {
+                break;
+            }
+            for (int edge = offsets[choosen]; edge < offsets[choosen + 1]; edge++) {
+                int next = targets[edge];
+                if (settled[next]) {
+                    continue;
+                }
+                if (weights[edge] <= 0) {
+                    return getOptimalPathDFS(graph, start, end, weights);
+                }
+                if (distances[choosen] + weights[edge] < distances[next]) {
+                    distances[next] = distances[choosen] + weights[edge];
+                    queue.insertOrDecrease(next, distances[next]);
+                }
+            }
+        }
+        if (!settled[start]) {
+            return null;
+        }
+
+        List<Integer> path = new ArrayList<>();
+        int current = start;
+        path.add(start);
+        while (current != end) {
+            for (int edge = offsets[current]; edge < offsets[current + 1]; edge++) {
+                int next = targets[edge];
+                if (settled[next] && distances[next] + weights[edge] == distances[current]) {
+                    current = next;
+                    path.add(next);
+                    break;
+                }
+            }
+        }
+        return path.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Gives all possible paths (without cycles) between two vertices of a
+     * compact graph as a lazy stream. The next path is searched only when the
+     * stream asks for it, so the memory needed does not grow with the count of
+     * the paths and the first path is available right away.
+     *
+     * @param graph The graph of which the paths should be found
+     * @param start The id of the starting vertex
+     * @param end The id of the ending vertex
+     * @return The ids of the vertices on every path in depth first order
+     */
+    public static Stream<int[]> streamAllPaths(CompactGraph graph, int start, int end) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new PathEnumerator(graph, start, end),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Goes through all possible paths (without cycles) between two vertices of
+     * a compact graph with all workers of the common fork/join pool
+     *
+     * @param graph The graph of which the paths should be found
+     * @param start The id of the starting vertex
+     * @param end The id of the ending vertex
+     * @param ordered If true the paths are handed to the action in depth first
+     * order after the search is done, otherwise they are handed over from the
+     * workers as soon as they are found and the action has to be thread-safe
+     * @param action Gets the ids of the vertices on every path
+     */
+    public static void forEachPathParallel(CompactGraph graph, int start, int end, boolean ordered,
+            Consumer<int[]> action) {
+        PathSearchTask task = new PathSearchTask(graph, start, end, null, ordered ? null : action);
+        ForkJoinPool.commonPool().invoke(task);
+        if (ordered) {
+            task.forEachFound(action);
+        }
+    }
+
+    /**
+     * Parallel version of getOptimalPathDFS for compact graphs. The subtrees
+     * of the search are tried out on the common fork/join pool and from paths
+     * with the same weight the one that comes first in depth first order is
+     * taken, so the result is the same as the one of the sequential search.
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param start The id of the starting vertex of the path
+     * @param end The id of the vertex with which the path should end
+     * @param weights The weights of the edges of the graph
+     * @return The ids of the vertices on the path or null if the end vertex can
+     * not be reached from the start vertex
+     */
+    public static int[] getOptimalPathDFSParallel(CompactGraph graph, int start, int end, int[] weights) {
+        PathSearchTask task = new PathSearchTask(graph, start, end, weights, null);
+        ForkJoinPool.commonPool().invoke(task);
+        return task.getBest();
+    }
+
+    /**
+     * Finds the optimal path in a compact graph by trying out all of the paths
+     * between the vertices in depth first order. From paths with the same
+     * weight the one found first is taken. Only the vertices of the blocks
+     * between the two vertices in the block-cut tree of the graph are tried.
+     *
+     * @param graph The graph on which the operation should be executed
+     * @param start The id of the starting vertex of the path
+     * @param end The id of the vertex with which the path should end
+     * @param weights The weights of the edges of the graph
+     * @return The ids of the vertices on the path or null if the end vertex can
+     * not be reached from the start vertex
+     */
+    public static int[] getOptimalPathDFS(CompactGraph graph, int start, int end, int[] weights) {
+        int[][] best = new int[1][];
+        long[] bestWeight = {Long.MAX_VALUE};
+        boolean[] visited = graph.getBlockCutTree().getExcludedVertices(start, end);
+        dfs(graph, weights, start, end, visited, new int[graph.vertexCount()], 0, 0,
+                best, bestWeight);
+        return best[0];
+    }
+
+    private static void dfs(CompactGraph graph, int[] weights, int vert, int end, boolean[] visited,
+            int[] pathSoFar, int depth, long weight, int[][] best, long[] bestWeight) {
+        pathSoFar[depth] = vert;
+        if (vert == end) {
+            if (weight < bestWeight[0]) {
+                bestWeight[0] = weight;
+                best[0] = Arrays.copyOf(pathSoFar, depth + 1);
+            }
+            return;
+        }
+        visited[vert] = true;
+        int[] offsets = graph.getOffsets();
+        for (int edge = offsets[vert]; edge < offsets[vert + 1]; edge++) {
+            int next = graph.getTargets()[edge];
+            if (!visited[next]) {
+                dfs(graph, weights, next, end, visited, pathSoFar, depth + 1, weight + weights[edge], best, bestWeight);
+            }
+        }
+        visited[vert] = false;
+    }
+
+    /**
+     * Find the 'weight' of a given path in a compact graph
+     *
+     * @param graph The graph of the path
+     * @param path The ids of the vertices on the path
+     * @param weights The weights of the edges of the graph
+     * @return The weight of the path
+     */
+    public static int getPathLenth(CompactGraph graph, int[] path, int[] weights) {
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int sum = 0;
+        for (int i = 0; i < path.length - 1; i++) {
+            for (int edge = offsets[path[i]]; edge < offsets[path[i] + 1]; edge++) {
+                if (targets[edge] == path[i + 1]) {
+                    sum += weights[edge];
+                    break;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static int[] buildPath(int[] predecessors, int end) {
+        int length = 0;
+        for (int vert = end; vert != -1; vert = predecessors[vert]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int vert = end; vert != -1; vert = predecessors[vert]) {
+            path[--length] = vert;
+        }
+        return path;
+    }
+
     /**
      * Finds the count of the connected components of the graph
      *
@@ -265,10 +897,13 @@ public final class GraphOperations {
      */
     public static <X, T extends Graph<X>> int
             getConnectedComponentsCount(T graph) throws VertexDoesNotExistException {
+        if (graph instanceof Connectivity) {
+            return ((Connectivity<?>) graph).getComponentCount();
+        }
 
         int connectedComponents = 0;
 
-        List<X> visited = new ArrayList<>();
+        Set<X> visited = new HashSet<>();
         List<X> vertices = graph.vertices();
 
         for (int i = 0; i < vertices.size(); i++) {
@@ -301,4 +936,17 @@ public final class GraphOperations {
 
     }
 
+    /**
+     * Checks if two vertices can be in the same connected component. Only
+     * graphs that keep track of their components can tell that they are not.
+     */
+    @SuppressWarnings("unchecked")
+    private static <X, T extends Graph<X>> boolean mayBeConnected(T graph, X vert1, X vert2)
+            throws VertexDoesNotExistException {
+        if (graph instanceof Connectivity) {
+            return ((Connectivity<X>) graph).connected(vert1, vert2);
+        }
+        return true;
+    }
+
 }
@@ -0,0 +1,155 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap over the integer ids 0..capacity-1 of the vertices of a
+ * graph. The heap remembers where every id is stored, so the key of an id that
+ * is already in the heap can be decreased in O(log n) without searching for
+ * it.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] positions;
+    private final long[] keys;
+    private int size;
+
+    /**
+     * Creates an empty heap that can hold the ids from 0 to capacity - 1
+     *
+     * @param capacity The count of the different ids
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     *
+     * @return true if there are no ids in the heap
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     *
+     * @return The count of the ids in the heap
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     *
+     * @param id An id
+     * @return true if the id is currently in the heap
+     */
+    public boolean contains(int id) {
+        return positions[id] >= 0;
+    }
+
+    /**
+     *
+     * @return The key of the id on the top of the heap
+     */
+    public long peekKey() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        return keys[heap[0]];
+    }
+
+    /**
+     * Inserts an id in the heap or decreases its key if it is already there.
+     * Keys that are bigger than the current one are ignored. The keys are
+     * longs, so sums of int weights can be used without being cut off.
+     *
+     * @param id The id
+     * @param key The (new) key of the id
+     */
+    public void insertOrDecrease(int id, long key) {
+        int position = positions[id];
+        if (position < 0) {
+            position = size++;
+            heap[position] = id;
+            positions[id] = position;
+        } else if (key >= keys[id]) {
+            return;
+        }
+        keys[id] = key;
+        siftUp(position);
+    }
+
+    /**
+     * Removes the id with the smallest key from the heap
+     *
+     * @return The id with the smallest key
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        int top = heap[0];
+        positions[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes all of the ids from the heap
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int id = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[heap[parent]] <= keys[id]) {
+                break;
+            }
+            heap[position] = heap[parent];
+            positions[heap[position]] = position;
+            position = parent;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+    private void siftDown(int position) {
+        int id = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[id] <= keys[heap[child]]) {
+                break;
+            }
+            heap[position] = heap[child];
+            positions[heap[position]] = position;
+            position = child;
+        }
+        heap[position] = id;
+        positions[id] = position;
+    }
+
+}
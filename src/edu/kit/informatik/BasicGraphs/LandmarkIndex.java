@@ -0,0 +1,164 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.Arrays;
+
+/**
+ * The distances from a few landmark vertices to all vertices of a compact,
+ * undirected graph. By the triangle inequality |d(L, t) - d(L, v)| is never
+ * bigger than the distance between v and t, so the landmarks give lower bounds
+ * for the A* search (ALT: A*, landmarks, triangle inequality). The landmarks
+ * are picked one after another as the vertex that is farthest away from all of
+ * the landmarks picked so far.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class LandmarkIndex {
+
+    private final int[] landmarks;
+    private final int[][] distances;
+
+    private LandmarkIndex(int[] landmarks, int[][] distances) {
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * Picks the landmarks of a graph and finds the distances from them to all
+     * vertices
+     *
+     * @param graph The graph. Every edge has to be stored for both of it's
+     * vertices
+     * @param weights The weights of the edges of the graph
+     * @param count The count of the landmarks that should be picked
+     * @return The landmarks or null if the graph has negative weights, for
+     * which the bounds are not valid
+     */
+    public static LandmarkIndex build(CompactGraph graph, int[] weights, int count) {
+        for (int weight : weights) {
+            if (weight < 0) {
+                return null;
+            }
+        }
+        count = Math.min(count, graph.vertexCount());
+        int[] landmarks = new int[count];
+        int[][] distances = new int[count][];
+        int[] closest = new int[graph.vertexCount()];
+        if (count > 0) {
+            int[] fromFirst = GraphOperations.getDistances(graph, 0, weights);
+            landmarks[0] = farthest(fromFirst);
+        }
+        for (int i = 0; i < count; i++) {
+            distances[i] = GraphOperations.getDistances(graph, landmarks[i], weights);
+            for (int vert = 0; vert < closest.length; vert++) {
+                closest[vert] = i == 0 ? distances[i][vert] : Math.min(closest[vert], distances[i][vert]);
+            }
+            if (i + 1 < count) {
+                landmarks[i + 1] = farthest(closest);
+            }
+        }
+        return new LandmarkIndex(landmarks, distances);
+    }
+
+    /**
+     * Vertices that can not be reached from the landmarks so far are the
+     * farthest ones, so every connected component gets a landmark
+     */
+    private static int farthest(int[] distances) {
+        int farthest = 0;
+        for (int vert = 1; vert < distances.length; vert++) {
+            if (distances[vert] > distances[farthest]) {
+                farthest = vert;
+            }
+        }
+        return farthest;
+    }
+
+    /**
+     * Brings the landmark distances up to date after vertices and edges were
+     * added to the graph or weights were lowered, without searching from the
+     * landmarks again. The vertices of the old graph have to keep their ids
+     * and the old edges of every vertex have to come before it's new edges,
+     * otherwise the distances can not be refreshed.
+     *
+     * @param oldGraph The graph for which the distances were found
+     * @param oldWeights The weights of the edges of the old graph
+     * @param graph The changed graph
+     * @param weights The weights of the edges of the changed graph
+     * @return The refreshed landmarks or null if the graph changed in another
+     * way (removed vertices or edges, higher weights) and the landmarks have
+     * to be built again
+     */
+    public LandmarkIndex refresh(CompactGraph oldGraph, int[] oldWeights, CompactGraph graph, int[] weights) {
+        if (!onlyGrew(oldGraph, oldWeights, graph, weights)) {
+            return null;
+        }
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int[][] refreshed = new int[landmarks.length][];
+        IndexedMinHeap queue = new IndexedMinHeap(graph.vertexCount());
+        for (int i = 0; i < landmarks.length; i++) {
+            int[] dist = Arrays.copyOf(distances[i], graph.vertexCount());
+            Arrays.fill(dist, distances[i].length, dist.length, Integer.MAX_VALUE);
+            for (int vert = 0; vert < graph.vertexCount(); vert++) {
+                if (dist[vert] == Integer.MAX_VALUE) {
+                    continue;
+                }
+                for (int edge = offsets[vert]; edge < offsets[vert + 1]; edge++) {
+                    if (dist[vert] + weights[edge] < dist[targets[edge]]) {
+                        dist[targets[edge]] = dist[vert] + weights[edge];
+                        queue.insertOrDecrease(targets[edge], dist[targets[edge]]);
+                    }
+                }
+            }
+            GraphOperations.relaxAll(offsets, targets, weights, dist, queue);
+            refreshed[i] = dist;
+        }
+        return new LandmarkIndex(landmarks, refreshed);
+    }
+
+    private static boolean onlyGrew(CompactGraph oldGraph, int[] oldWeights, CompactGraph graph, int[] weights) {
+        if (graph.vertexCount() < oldGraph.vertexCount()) {
+            return false;
+        }
+        for (int weight : weights) {
+            if (weight < 0) {
+                return false;
+            }
+        }
+        int[] oldOffsets = oldGraph.getOffsets();
+        int[] offsets = graph.getOffsets();
+        for (int vert = 0; vert < oldGraph.vertexCount(); vert++) {
+            int oldCount = oldOffsets[vert + 1] - oldOffsets[vert];
+            if (offsets[vert + 1] - offsets[vert] < oldCount) {
+                return false;
+            }
+            for (int k = 0; k < oldCount; k++) {
+                if (oldGraph.getTargets()[oldOffsets[vert] + k] != graph.getTargets()[offsets[vert] + k]
+                        || oldWeights[oldOffsets[vert] + k] < weights[offsets[vert] + k]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives a lower bound of the distance between two vertices
+     *
+     * @param vert The first vertex
+     * @param target The second vertex
+     * @return A value that is not bigger than the distance between the
+     * vertices
+     */
+    public int getLowerBound(int vert, int target) {
+        int bound = 0;
+        for (int[] dist : distances) {
+            if (dist[vert] != Integer.MAX_VALUE && dist[target] != Integer.MAX_VALUE) {
+                bound = Math.max(bound, Math.abs(dist[target] - dist[vert]));
+            }
+        }
+        return bound;
+    }
+
+}
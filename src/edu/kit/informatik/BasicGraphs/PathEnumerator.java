@@ -0,0 +1,97 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Goes through all paths without cycles between two vertices of a compact
+ * graph one path at a time. The depth-first search is kept on an explicit
+ * stack, so only the current path and the position in the edges of every
+ * vertex on it are stored and the next path is found only when it is asked
+ * for. The paths come in the same order as the recursive search in
+ * GraphOperations.getAllPathsDFS would find them. Vertices outside of the
+ * blocks between the two vertices are treated as if they were already on the
+ * path, so the search never goes into them.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+final class PathEnumerator implements Iterator<int[]> {
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int end;
+    private final int[] path;
+    private final int[] cursors;
+    private final boolean[] onPath;
+    private int depth;
+    private int[] next;
+
+    /**
+     *
+     * @param graph The graph of which the paths should be found
+     * @param start The first vertex of the paths
+     * @param end The last vertex of the paths
+     */
+    PathEnumerator(CompactGraph graph, int start, int end) {
+        this.offsets = graph.getOffsets();
+        this.targets = graph.getTargets();
+        this.end = end;
+        this.path = new int[graph.vertexCount()];
+        this.cursors = new int[graph.vertexCount()];
+        this.onPath = graph.getBlockCutTree().getExcludedVertices(start, end);
+        push(start);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public int[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int[] found = next;
+        next = null;
+        return found;
+    }
+
+    private int[] advance() {
+        while (depth > 0) {
+            int top = path[depth - 1];
+            if (top == end) {
+                int[] found = Arrays.copyOf(path, depth);
+                pop();
+                return found;
+            }
+            if (cursors[depth - 1] < offsets[top + 1]) {
+                int target = targets[cursors[depth - 1]++];
+                if (!onPath[target]) {
+                    push(target);
+                }
+            } else {
+                pop();
+            }
+        }
+        return null;
+    }
+
+    private void push(int vert) {
+        path[depth] = vert;
+        cursors[depth] = offsets[vert];
+        onPath[vert] = true;
+        depth++;
+    }
+
+    private void pop() {
+        depth--;
+        onPath[path[depth]] = false;
+    }
+
+}
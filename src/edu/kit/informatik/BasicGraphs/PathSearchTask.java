@@ -0,0 +1,229 @@
+package edu.kit.informatik.BasicGraphs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Searches through the paths without cycles between two vertices of a compact
+ * graph on a fork/join pool. Every task owns a subtree of the depth-first
+ * search, given by the path that leads to it, and keeps it's own bitset of the
+ * vertices on that path. Near the root and while the pool runs out of queued
+ * work the subtree is split into one task per neighbor, so idle workers can
+ * steal them. Otherwise the subtree is searched sequentially. The vertices
+ * outside of the blocks between the two vertices start out as marked, so no
+ * task goes into them.
+ *
+ * The task either hands every path to an action as soon as it is found (in
+ * no particular order), keeps the paths so they can be given out in depth
+ * first order after the search, or only keeps the best path by given weights.
+ * The results of the children are combined in the order of the edges, so the
+ * ordered paths and the best path do not depend on how the work was split.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+final class PathSearchTask extends RecursiveAction {
+
+    /**
+     * Subtrees up to this depth are always split
+     */
+    private static final int MIN_SPLIT_DEPTH = 2;
+    /**
+     * Subtrees deeper than this are never split
+     */
+    private static final int MAX_SPLIT_DEPTH = 16;
+    /**
+     * Subtrees are split while the worker has no more queued tasks than this
+     */
+    private static final int SURPLUS_LIMIT = 2;
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int end;
+    private final Consumer<int[]> action;
+    private final int[] path;
+    private final int depth;
+    private final long[] onPath;
+    private final long weight;
+
+    private PathSearchTask[] children;
+    private List<int[]> found;
+    private int[] best;
+    private long bestWeight;
+
+    /**
+     * Creates the task for the whole search
+     *
+     * @param graph The graph of which the paths should be found
+     * @param start The first vertex of the paths
+     * @param end The last vertex of the paths
+     * @param weights The weights of the edges if only the best path should be
+     * kept, otherwise null
+     * @param action Gets every path right when it is found or null if the
+     * paths should be kept in depth first order
+     */
+    PathSearchTask(CompactGraph graph, int start, int end, int[] weights, Consumer<int[]> action) {
+        this(graph.getOffsets(), graph.getTargets(), weights, end, action, new int[]{start}, 1,
+                mark(toBits(graph.getBlockCutTree().getExcludedVertices(start, end)), start), 0);
+    }
+
+    private PathSearchTask(int[] offsets, int[] targets, int[] weights, int end, Consumer<int[]> action,
+            int[] path, int depth, long[] onPath, long weight) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.end = end;
+        this.action = action;
+        this.path = path;
+        this.depth = depth;
+        this.onPath = onPath;
+        this.weight = weight;
+        this.bestWeight = Long.MAX_VALUE;
+    }
+
+    @Override
+    protected void compute() {
+        int top = path[depth - 1];
+        if (top == end) {
+            report(path, depth, weight);
+        } else if (depth < MIN_SPLIT_DEPTH
+                || (depth < MAX_SPLIT_DEPTH && getSurplusQueuedTaskCount() <= SURPLUS_LIMIT)) {
+            split(top);
+        } else {
+            searchSequential();
+        }
+    }
+
+    private void split(int top) {
+        List<PathSearchTask> forks = new ArrayList<>();
+        for (int edge = offsets[top]; edge < offsets[top + 1]; edge++) {
+            int target = targets[edge];
+            if (isMarked(onPath, target)) {
+                continue;
+            }
+            int[] childPath = Arrays.copyOf(path, depth + 1);
+            childPath[depth] = target;
+            long childWeight = weights == null ? 0 : weight + weights[edge];
+            forks.add(new PathSearchTask(offsets, targets, weights, end, action, childPath, depth + 1,
+                    mark(onPath.clone(), target), childWeight));
+        }
+        children = forks.toArray(new PathSearchTask[forks.size()]);
+        invokeAll(children);
+        if (weights != null) {
+            for (PathSearchTask child : children) {
+                if (child.best != null && child.bestWeight < bestWeight) {
+                    best = child.best;
+                    bestWeight = child.bestWeight;
+                }
+            }
+        }
+    }
+
+    /**
+     * Depth-first search over the rest of the subtree with an explicit stack,
+     * in the same order as PathEnumerator
+     */
+    private void searchSequential() {
+        int capacity = offsets.length - 1;
+        int[] stack = Arrays.copyOf(path, capacity);
+        int[] cursors = new int[capacity];
+        long[] sums = new long[capacity];
+        long[] visited = onPath.clone();
+        int size = depth;
+        cursors[size - 1] = offsets[stack[size - 1]];
+        sums[size - 1] = weight;
+        while (true) {
+            int top = stack[size - 1];
+            if (top == end) {
+                report(stack, size, sums[size - 1]);
+                unmark(visited, top);
+                size--;
+            } else if (cursors[size - 1] == offsets[top + 1]) {
+                if (size == depth) {
+                    return;
+                }
+                unmark(visited, top);
+                size--;
+            } else {
+                int edge = cursors[size - 1]++;
+                int target = targets[edge];
+                if (!isMarked(visited, target)) {
+                    stack[size] = target;
+                    cursors[size] = offsets[target];
+                    sums[size] = weights == null ? 0 : sums[size - 1] + weights[edge];
+                    mark(visited, target);
+                    size++;
+                }
+            }
+        }
+    }
+
+    private void report(int[] vertices, int length, long pathWeight) {
+        if (weights != null) {
+            if (pathWeight < bestWeight) {
+                bestWeight = pathWeight;
+                best = Arrays.copyOf(vertices, length);
+            }
+        } else if (action != null) {
+            action.accept(Arrays.copyOf(vertices, length));
+        } else {
+            if (found == null) {
+                found = new ArrayList<>();
+            }
+            found.add(Arrays.copyOf(vertices, length));
+        }
+    }
+
+    /**
+     * Gives out the kept paths of the finished search in depth first order
+     *
+     * @param consumer Gets the paths
+     */
+    void forEachFound(Consumer<int[]> consumer) {
+        if (children != null) {
+            for (PathSearchTask child : children) {
+                child.forEachFound(consumer);
+            }
+        } else if (found != null) {
+            found.forEach(consumer);
+        }
+    }
+
+    /**
+     *
+     * @return The best path of the finished search or null if there is no path
+     */
+    int[] getBest() {
+        return best;
+    }
+
+    private static long[] toBits(boolean[] marked) {
+        long[] bits = new long[(marked.length + 63) / 64];
+        for (int vert = 0; vert < marked.length; vert++) {
+            if (marked[vert]) {
+                mark(bits, vert);
+            }
+        }
+        return bits;
+    }
+
+    private static long[] mark(long[] bits, int vert) {
+        bits[vert >>> 6] |= 1L << vert;
+        return bits;
+    }
+
+    private static void unmark(long[] bits, int vert) {
+        bits[vert >>> 6] &= ~(1L << vert);
+    }
+
+    private static boolean isMarked(long[] bits, int vert) {
+        return (bits[vert >>> 6] & (1L << vert)) != 0;
+    }
+
+}
@@ -0,0 +1,164 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.BasicGraphs.Graph;
+import edu.kit.informatik.BasicGraphs.GraphCommand;
+import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
+import edu.kit.informatik.RouteGraph.RouteGraph;
+import edu.kit.informatik.Utils.CommandOutput;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * The handling of the arguments and the printing of the results that the
+ * commands on a route graph and the ones on a mapped route graph share, so
+ * both of them read the same input and print the same output.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+final class CommandArguments {
+
+    /**
+     * Separates the arguments of a command
+     */
+    static final String ARGUMENT_SEPARATOR = ";";
+
+    /**
+     * Separates the cities of a list in an argument
+     */
+    static final String LIST_SEPARATOR = ",";
+
+    /**
+     * Separates the name of a command from it's arguments
+     */
+    static final String COMMAND_SEPARATOR = " ";
+
+    private CommandArguments() {
+
+    }
+
+    /**
+     * Splits a line of input into the name of the command and it's arguments
+     * and executes the command with this name
+     *
+     * @param <G> The type of the graph
+     * @param commands The commands by their names
+     * @param graph The graph on which the command should be executed
+     * @param command The line of input
+     * @param output Takes the output and the errors of the command
+     */
+    static <G extends Graph<String>> void execute(Map<String, GraphCommand<String, G>> commands, G graph,
+            String command, CommandOutput output) {
+        String data[] = command.split(COMMAND_SEPARATOR);
+        try {
+            if (commands.containsKey(data[0])) {
+                if (data.length == 1) {
+                    commands.get(data[0]).execute(graph, new String[0], output);
+                } else {
+                    commands.get(data[0]).execute(graph, data[1].split(ARGUMENT_SEPARATOR), output);
+                }
+            } else {
+                output.printErrorMessage("There is no such command");
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            output.printErrorMessage("No arguments fo the command found");
+        } catch (IllegalArgumentException ex) {
+            output.handelException(ex);
+        }
+    }
+
+    /**
+     * Checks the names of cities that are arguments of a command
+     *
+     * @param output Takes the error if one of the names is invalid
+     * @param cities The names of the cities
+     * @return true if all of the names are valid
+     */
+    static boolean hasValidCityNames(CommandOutput output, String... cities) {
+        for (String city : cities) {
+            if (!RouteGraph.isValidCityName(city)) {
+                output.printErrorMessage("Invalid city name");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks up the ids of a list of cities
+     *
+     * @param cities The names of the cities
+     * @param ids Finds the id of one city
+     * @return The ids of the cities in the same order
+     * @throws VertexDoesNotExistException If one of the cities does not exist
+     */
+    static int[] getIds(String[] cities, IdLookup ids) throws VertexDoesNotExistException {
+        int[] found = new int[cities.length];
+        for (int i = 0; i < cities.length; i++) {
+            found[i] = ids.getId(cities[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Prints the error of a search that found no path
+     *
+     * @param startCity The first city of the path
+     * @param endCity The last city of the path
+     * @param output Takes the error
+     */
+    static void printNoRoute(String startCity, String endCity, CommandOutput output) {
+        output.printErrorMessage("There is no route between " + startCity + " and " + endCity);
+    }
+
+    /**
+     * Prints a path as the names of it's cities in one line
+     *
+     * @param path The ids of the cities on the path
+     * @param names Gives the name of the city with an id
+     * @param output Takes the printed path
+     */
+    static void printPath(int[] path, IntFunction<String> names, CommandOutput output) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < path.length; i++) {
+            if (i > 0) {
+                builder.append(" ");
+            }
+            builder.append(names.apply(path[i]));
+        }
+        output.printLine(builder.toString());
+    }
+
+    /**
+     * Prints a row of a distance matrix
+     *
+     * @param row The distances or Integer.MAX_VALUE where there is no route
+     * @param output Takes the printed row
+     */
+    static void printRow(int[] row, CommandOutput output) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                builder.append(" ");
+            }
+            builder.append(row[i] == Integer.MAX_VALUE ? "-" : String.valueOf(row[i]));
+        }
+        output.printLine(builder.toString());
+    }
+
+    /**
+     * Finds the id of a city in a graph
+     */
+    @FunctionalInterface
+    interface IdLookup {
+
+        /**
+         *
+         * @param city The name of the city
+         * @return The id of the city
+         * @throws VertexDoesNotExistException If there is no such city
+         */
+        int getId(String city) throws VertexDoesNotExistException;
+    }
+
+}
@@ -5,118 +5,159 @@
  */
 package edu.kit.informatik;
 
+import edu.kit.informatik.BasicGraphs.DistanceTable;
+import edu.kit.informatik.BasicGraphs.EnumerationMode;
 import edu.kit.informatik.BasicGraphs.GraphCommand;
 import edu.kit.informatik.BasicGraphs.GraphOperations;
-import edu.kit.informatik.BasicGraphs.GraphWeightStrategy;
 import edu.kit.informatik.Exceptions.EdgeAlreadyExistsException;
 import edu.kit.informatik.Exceptions.EdgeDoesNotExistException;
 import edu.kit.informatik.Exceptions.WeigthStrategyDoesNotExist;
 import edu.kit.informatik.Exceptions.VertexAlreadyExistsException;
 import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
+import edu.kit.informatik.RouteGraph.CityDictionary;
+import edu.kit.informatik.RouteGraph.RouteCache;
 import edu.kit.informatik.RouteGraph.RouteGraph;
-import edu.kit.informatik.Utils.ErrorHandler;
+import edu.kit.informatik.RouteGraph.RouteGraphFile;
+import edu.kit.informatik.RouteGraph.RouteGraphSnapshot;
+import edu.kit.informatik.RouteGraph.WigthingStrategies.RouteGraphWeighStrategy;
+import edu.kit.informatik.RouteGraph.WigthingStrategies.SearchMode;
+import edu.kit.informatik.Utils.CommandOutput;
 import edu.kit.informatik.Utils.RouteGraphParser;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 /**
+ * The commands that can be executed on a route graph. Every command writes its
+ * output and its errors to the output that is given to it, so the same
+ * commands can print on the console or be collected while other commands run.
+ * The read-only commands do not change the graph or the state of the commands
+ * and can run at the same time as long as no other command runs. The search
+ * and enumeration modes belong to the commands, not to the graph, so every
+ * session that shares a graph keeps it's own modes.
  *
  * @author Stanislav
  * @version 0.0.42
  */
-public final class CommandCall {
-
-    private final Map<String, GraphCommand<String, RouteGraph>> COMMANDS;
-    private final String ARGUMENT_SEPARATOR = ";";
-    private final String COMMAND_SEPARATOR = " ";
-    private final String QUIT_COMMAND = "quit";
-    private RouteGraphParser graphParser;
-    private RouteGraph graph;
-    ErrorHandler errorHandler;
-
-    public CommandCall() {
-
-        COMMANDS = new HashMap<>();
-        COMMANDS.put("search", new GraphCommand<>(this::search, 3));
-        COMMANDS.put("route", new GraphCommand<>(this::route, 3));
-        COMMANDS.put("remove", new GraphCommand<>(this::remove, 2));
-        COMMANDS.put("insert", new GraphCommand<>(this::insert, 4));
-        COMMANDS.put("info", new GraphCommand<>(this::info, 0));
-        COMMANDS.put("nodes", new GraphCommand<>(this::nodes, 1));
-        COMMANDS.put("vertices", new GraphCommand<>(this::vertices, 0));
-    }
+public final class CommandCall implements CommandSet {
+
+    private static final Set<String> READ_ONLY_COMMANDS = Collections.unmodifiableSet(new HashSet<>(
+            Arrays.asList("search", "route", "nodes", "vertices", "info", "connected", "matrix")));
+
+    private final Map<String, GraphCommand<String, RouteGraph>> commands;
+    private final RouteGraph graph;
+    private final RouteGraphParser graphParser;
+    private final RouteCache routeCache;
+    private final Map<String, SearchMode> searchModes;
+    private volatile EnumerationMode enumerationMode;
 
     /**
-     * Starts the iterative sequence that takes input commands from the command
-     * line
+     * Creates the commands for a route graph. The arguments of the commands
+     * are turned into the names kept by the city dictionary of the graph, so
+     * the lookups of the cities find the same strings. Only the file of the
+     * save command keeps it's case.
      *
-     * @param errorHandler Error handler that can handle errors that happen due
-     * to user input
      * @param graph The graph on which the commands will operate
      * @param parser A parser for the graph that is capable of serializing the
      * graph
      */
-    public void beginInputSequence(ErrorHandler errorHandler,
-            RouteGraph graph, RouteGraphParser parser) {
-
-        graphParser = parser;
+    public CommandCall(RouteGraph graph, RouteGraphParser parser) {
         this.graph = graph;
-        this.errorHandler = errorHandler;
+        this.graphParser = parser;
+        this.routeCache = new RouteCache();
+        this.searchModes = new ConcurrentHashMap<>();
+        this.enumerationMode = EnumerationMode.SEQUENTIAL;
+        UnaryOperator<String> names = graph.getDictionary()::canonical;
+        commands = new HashMap<>();
+        commands.put("search", new GraphCommand<>(this::search, 3, names));
+        commands.put("route", new GraphCommand<>(this::route, 3, names));
+        commands.put("remove", new GraphCommand<>(this::remove, 2, names));
+        commands.put("insert", new GraphCommand<>(this::insert, 4, names));
+        commands.put("info", new GraphCommand<>(this::info, 0, names));
+        commands.put("nodes", new GraphCommand<>(this::nodes, 1, names));
+        commands.put("vertices", new GraphCommand<>(this::vertices, 0, names));
+        commands.put("mode", new GraphCommand<>(this::mode, 2, names));
+        commands.put("connected", new GraphCommand<>(this::connected, 2, names));
+        commands.put("stats", new GraphCommand<>(this::stats, 0, names));
+        commands.put("matrix", new GraphCommand<>(this::matrix, 3, names));
+        commands.put("save", new GraphCommand<>(this::save, 1, UnaryOperator.identity()));
+    }
 
+    @Override
+    public boolean isReadOnly(String command) {
+        String data[] = command.split(CommandArguments.COMMAND_SEPARATOR);
+        return data.length > 0 && READ_ONLY_COMMANDS.contains(data[0]);
     }
 
-    public void command(String command) {
-        String data[] = command.split(COMMAND_SEPARATOR);
-        try {
-            if (COMMANDS.containsKey(data[0])) {
-                if (data.length == 1) {
-                    COMMANDS.get(data[0]).execute(graph, new String[0], errorHandler);
-                } else {
-                    COMMANDS.get(data[0]).execute(graph, data[1].split(ARGUMENT_SEPARATOR), errorHandler);
-                }
-            } else {
-                errorHandler.printErrorMessage("There is no such command");
+    /**
+     * Builds the snapshot of the graph once before the group starts and
+     * prepares the indexes of the search modes that were chosen in this
+     * session for it, see RouteGraphWeighStrategy.prepareIndex
+     */
+    @Override
+    public void prepareReadOnly() {
+        RouteGraphSnapshot snapshot = graph.getSnapshot();
+        for (Map.Entry<String, SearchMode> searchMode : searchModes.entrySet()) {
+            try {
+                graph.getWeigthStrategy(searchMode.getKey()).prepareIndex(snapshot, searchMode.getValue());
+            } catch (WeigthStrategyDoesNotExist ex) {
+                // the mode command only keeps the modes of existing strategies
             }
-        } catch (ArrayIndexOutOfBoundsException e) {
-            errorHandler.printErrorMessage("No arguments fo the command found");
-        } catch (IllegalArgumentException ex) {
-            errorHandler.handelException(ex);
         }
+    }
 
+    @Override
+    public void execute(String command, CommandOutput output) {
+        CommandArguments.execute(commands, graph, command, output);
     }
 
     /**
-     * This command find the 'length' of the best path by given criterion
+     * This command find the 'length' of the best path by given criterion. In
+     * the table search mode the length is looked up in the distance table
+     * without following the path
      *
      * @param args The arguments of the command
      * @param graph The graph on which the command should be executed
-     * @param errorHandler Error handler that can take care of errors that
-     * happen during the command's execution
+     * @param output Takes the output and the errors of the command
      */
-    private void search(String[] args, RouteGraph graph, ErrorHandler errorHandler) {
+    private void search(String[] args, RouteGraph graph, CommandOutput output) {
         try {
-            final String startCiy = args[0];
-            final String endCiy = args[1];
+            final String startCity = args[0];
+            final String endCity = args[1];
             final String criterion = args[2];
-            if (!RouteGraph.isValidCityName(startCiy) || !RouteGraph.isValidCityName(endCiy)) {
-                errorHandler.printErrorMessage("Invalid city name");
+            if (!CommandArguments.hasValidCityNames(output, startCity, endCity)) {
                 return;
             }
 
-            int pathWeigth;
-            Object path[];
-            if (criterion.equals("optimal")) {
-                path = GraphOperations.getOptimalPathDFS(graph, startCiy, endCiy, graph.getOptimalStrategy());
-                pathWeigth = GraphOperations.getPathLenth(path, graph.getOptimalStrategy());
-            } else {
-                GraphWeightStrategy<String, RouteGraph> weigthStrategy = graph.getWeigthStrategy(criterion);
-                path = GraphOperations.getOptimalPathDijkstra(graph, startCiy, endCiy, weigthStrategy);
-                pathWeigth = GraphOperations.getPathLenth(path, weigthStrategy);
+            RouteGraphWeighStrategy weigthStrategy = graph.getWeigthStrategy(criterion);
+            RouteGraphSnapshot snapshot = graph.getSnapshot();
+            DistanceTable table = getSearchMode(criterion) == SearchMode.TABLE
+                    ? weigthStrategy.getDistanceTable(snapshot) : null;
+            if (table != null) {
+                int end = snapshot.getId(endCity);
+                int start = snapshot.getId(startCity);
+                int distance = table.getDistance(start, end);
+                if (distance == Integer.MAX_VALUE) {
+                    CommandArguments.printNoRoute(startCity, endCity, output);
+                } else {
+                    output.printLine(String.valueOf(distance));
+                }
+                return;
+            }
+            RouteCache.Route route = findRoute(graph, snapshot, startCity, endCity, criterion, weigthStrategy,
+                    output);
+            if (route != null) {
+                output.printLine(String.valueOf(route.getWeight()));
             }
-            Terminal.printLine(String.valueOf(pathWeigth));
         } catch (VertexDoesNotExistException | WeigthStrategyDoesNotExist ex) {
-            errorHandler.handelException(ex);
+            output.handelException(ex);
         }
 
     }
@@ -126,55 +167,88 @@ public final class CommandCall {
      *
      * @param args The arguments of the command
      * @param graph The graph on which the command should be executed
-     * @param errorHandler Error handler that can take care of errors that
-     * happen during the command's execution
+     * @param output Takes the output and the errors of the command
      */
-    private void route(String[] args, RouteGraph graph, ErrorHandler errorHandler) {
+    private void route(String[] args, RouteGraph graph, CommandOutput output) {
         try {
-            final String startCiy = args[0];
-            final String endCiy = args[1];
+            final String startCity = args[0];
+            final String endCity = args[1];
             final String criterion = args[2];
-            if (!RouteGraph.isValidCityName(startCiy) || !RouteGraph.isValidCityName(endCiy)) {
-                errorHandler.printErrorMessage("Invalid city name");
+            if (!CommandArguments.hasValidCityNames(output, startCity, endCity)) {
                 return;
             }
 
-            Object path[];
-            switch (criterion) {
-                case "all":
-                    List<Object[]> allPaths = GraphOperations.getAllPathsDFS(graph, startCiy, endCiy);
-                    allPaths.forEach(p -> printPath(p));
+            RouteGraphSnapshot snapshot = graph.getSnapshot();
+            if (criterion.equals("all")) {
+                int end = snapshot.getId(endCity);
+                int start = snapshot.getId(startCity);
+                if (!snapshot.connected(start, end)) {
                     return;
-                case "optimal":
-                    path = GraphOperations.getOptimalPathDFS(graph, startCiy, endCiy, graph.getOptimalStrategy());
-                    break;
-                default:
-                    GraphWeightStrategy<String, RouteGraph> weigthStrategy = graph.getWeigthStrategy(criterion);
-                    path = GraphOperations.getOptimalPathDijkstra(graph, startCiy, endCiy, weigthStrategy);
-                    break;
+                }
+                if (enumerationMode == EnumerationMode.SEQUENTIAL) {
+                    GraphOperations.streamAllPaths(snapshot, start, end)
+                            .forEach(p -> CommandArguments.printPath(p, snapshot::getName, output));
+                } else {
+                    GraphOperations.forEachPathParallel(snapshot, start, end,
+                            enumerationMode == EnumerationMode.ORDERED,
+                            p -> CommandArguments.printPath(p, snapshot::getName, output));
+                }
+                return;
+            }
+            RouteGraphWeighStrategy weigthStrategy = graph.getWeigthStrategy(criterion);
+            RouteCache.Route route = findRoute(graph, snapshot, startCity, endCity, criterion, weigthStrategy,
+                    output);
+            if (route != null) {
+                CommandArguments.printPath(route.getPath(), snapshot::getName, output);
             }
-            printPath(path);
 
         } catch (VertexDoesNotExistException | WeigthStrategyDoesNotExist ex) {
-            errorHandler.handelException(ex);
+            output.handelException(ex);
         }
     }
 
     /**
-     * Helper command for printing a path of a graph on the console
+     * Helper command for finding the best path between two cities of a
+     * snapshot of the graph. Cities in different connected components are
+     * rejected before any search is started. Results of the same search in the
+     * same modification epoch of the graph are taken from the route cache.
      *
-     * @param path Array of the objects that should be showed
+     * @param graph The graph of which the snapshot was taken
+     * @param snapshot The snapshot of the graph
+     * @param startCity The first city of the path
+     * @param endCity The last city of the path
+     * @param criterion The name of the weighting strategy
+     * @param weigthStrategy The strategy that decides which path is the best
+     * @param output Takes the error when there is no path
+     * @return The best path and it's weight or null if there is no path
+     * @throws VertexDoesNotExistException If one of the cities does not exist
      */
-    private void printPath(Object[] path) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < path.length; i++) {
-            if (i == path.length - 1) {
-                builder.append(path[i]);
-            } else {
-                builder.append(path[i]).append(" ");
+    private RouteCache.Route findRoute(RouteGraph graph, RouteGraphSnapshot snapshot, String startCity,
+            String endCity, String criterion, RouteGraphWeighStrategy weigthStrategy, CommandOutput output)
+            throws VertexDoesNotExistException {
+        int end = snapshot.getId(endCity);
+        int start = snapshot.getId(startCity);
+        SearchMode searchMode = getSearchMode(criterion);
+        String key = start + CommandArguments.ARGUMENT_SEPARATOR + end + CommandArguments.ARGUMENT_SEPARATOR
+                + criterion + CommandArguments.ARGUMENT_SEPARATOR + searchMode.getName();
+        RouteCache.Route route = routeCache.get(snapshot, key);
+        if (route == null) {
+            int path[] = null;
+            if (snapshot.connected(start, end)) {
+                path = weigthStrategy.findPath(snapshot, start, end, searchMode);
+            }
+            int weigth = 0;
+            if (path != null) {
+                weigth = GraphOperations.getPathLenth(snapshot, path, weigthStrategy.getWeights(snapshot));
             }
+            route = new RouteCache.Route(path, weigth);
+            routeCache.put(snapshot, key, route);
         }
-        Terminal.printLine(builder.toString());
+        if (route.getPath() == null) {
+            CommandArguments.printNoRoute(startCity, endCity, output);
+            return null;
+        }
+        return route;
     }
 
     /**
@@ -184,53 +258,39 @@ public final class CommandCall {
      *
      * @param args The arguments of the command
      * @param graph The graph on which the command should be executed
-     * @param errorHandler Error handler that can take care of errors that
-     * happen during the command's execution
+     * @param output Takes the output and the errors of the command
      */
-    private void remove(String[] args, RouteGraph graph, ErrorHandler errorHandler) {
+    private void remove(String[] args, RouteGraph graph, CommandOutput output) {
         try {
             final String firstCity = args[0];
             final String secondCity = args[1];
 
-            if (!RouteGraph.isValidCityName(firstCity) || !RouteGraph.isValidCityName(secondCity)) {
-                errorHandler.printErrorMessage("Invalid city name");
+            if (!CommandArguments.hasValidCityNames(output, firstCity, secondCity)) {
                 return;
             }
 
-            int dist = graph.getDistanceStrategy().getWeigth(firstCity, secondCity);
-            int time = graph.getTimeStrategy().getWeigth(firstCity, secondCity);
-            int optimal = graph.getOptimalStrategy().getWeigth(firstCity, secondCity);
-
-            graph.removeEdge(firstCity, secondCity);
-
-            if (graph.neighbors(firstCity).isEmpty()) {
-                graph.removeVertex(firstCity);
-            }
-            if (graph.neighbors(secondCity).isEmpty()) {
-                graph.removeVertex(secondCity);
-            }
+            graph.beginUpdate();
+            try {
+                if (graph.disconnectsOnRemoval(firstCity, secondCity)) {
+                    output.printErrorMessage("Cannot execute the operaton because the graph becomes disconnected");
+                    return;
+                }
 
-            if (GraphOperations.getConnectedComponentsCount(graph) > 1) {
+                graph.removeEdge(firstCity, secondCity);
 
-                if (!graph.contains(firstCity)) {
-                    graph.addVertex(firstCity);
+                if (graph.neighbors(firstCity).isEmpty()) {
+                    graph.removeVertex(firstCity);
                 }
-                if (!graph.contains(secondCity)) {
-                    graph.addVertex(secondCity);
+                if (graph.neighbors(secondCity).isEmpty()) {
+                    graph.removeVertex(secondCity);
                 }
-
-                graph.addEdge(firstCity, secondCity);
-                graph.getDistanceStrategy().setWeight(firstCity, secondCity, dist);
-                graph.getTimeStrategy().setWeight(firstCity, secondCity, time);
-                graph.getOptimalStrategy().setWeight(firstCity, secondCity, optimal);
-                errorHandler.printErrorMessage("Cannot execute the operaton because the graph becomes disconnected");
-
-            } else {
-                Terminal.printLine("OK");
+            } finally {
+                graph.endUpdate();
             }
+            output.printLine("OK");
 
-        } catch (VertexDoesNotExistException | EdgeDoesNotExistException | VertexAlreadyExistsException | EdgeAlreadyExistsException ex) {
-            errorHandler.handelException(ex);
+        } catch (VertexDoesNotExistException | EdgeDoesNotExistException ex) {
+            output.handelException(ex);
         }
 
     }
@@ -241,45 +301,43 @@ public final class CommandCall {
      *
      * @param args The arguments of the command
      * @param graph The graph on which the command should be executed
-     * @param errorHandler Error handler that can take care of errors that
-     * happen during the command's execution
+     * @param output Takes the output and the errors of the command
      */
-    private void insert(String[] args, RouteGraph graph, ErrorHandler errorHandler) {
+    private void insert(String[] args, RouteGraph graph, CommandOutput output) {
         try {
             final String firstCity = args[0];
             final String secondCity = args[1];
             final int dist = Integer.parseInt(args[2]);
             final int time = Integer.parseInt(args[3]);
 
-            if (!RouteGraph.isValidCityName(firstCity) || !RouteGraph.isValidCityName(secondCity)) {
-                errorHandler.printErrorMessage("Invalid city name");
+            if (!CommandArguments.hasValidCityNames(output, firstCity, secondCity)) {
                 return;
             }
 
-            boolean isFristIn = graph.contains(firstCity);
-            boolean isSecondIn = graph.contains(secondCity);
-            if (isFristIn || isFristIn) {
-                if (!isFristIn) {
-                    graph.addVertex(firstCity);
-                }
-                if (!isSecondIn) {
-                    graph.addVertex(secondCity);
+            graph.beginUpdate();
+            try {
+                boolean isFristIn = graph.contains(firstCity);
+                boolean isSecondIn = graph.contains(secondCity);
+                if (isFristIn || isFristIn) {
+                    if (!isFristIn) {
+                        graph.addVertex(firstCity);
+                    }
+                    if (!isSecondIn) {
+                        graph.addVertex(secondCity);
+                    }
+                    CityDictionary names = graph.getDictionary();
+                    graph.addConnection(names.find(firstCity), names.find(secondCity), dist, time);
+                    output.printLine("OK");
+                } else {
+                    output.printErrorMessage("Both of the cities do not exist");
                 }
-                graph.addEdge(firstCity, secondCity);
-                graph.getDistanceStrategy().setWeight(firstCity, secondCity, dist);
-                graph.getTimeStrategy().setWeight(firstCity, secondCity, time);
-                graph.getOptimalStrategy().
-                        setWeight(firstCity,
-                                secondCity,
-                                RouteGraph.getOptimalWeigthRule(dist, time));
-                Terminal.printLine("OK");
-            } else {
-                errorHandler.printErrorMessage("Both of the cities do not exist");
+            } finally {
+                graph.endUpdate();
             }
         } catch (NumberFormatException e) {
-            errorHandler.printErrorMessage("Bad input for a integer value");
+            output.printErrorMessage("Bad input for a integer value");
         } catch (VertexAlreadyExistsException | VertexDoesNotExistException | EdgeAlreadyExistsException ex) {
-            errorHandler.handelException(ex);
+            output.handelException(ex);
         }
 
     }
@@ -289,39 +347,53 @@ public final class CommandCall {
      *
      * @param args The arguments of the command
      * @param graph The graph on which the command should be executed
-     * @param errorHandler Error handler that can take care of errors that
-     * happen during the command's execution
+     * @param output Takes the output and the errors of the command
      */
-    private void info(String[] args, RouteGraph graph, ErrorHandler errorHandler) {
+    private void info(String[] args, RouteGraph graph, CommandOutput output) {
         if (graph.vertices().isEmpty()) {
-            Terminal.printLine("");
+            output.printLine("");
         } else {
-            String lines[] = graphParser.serialize(graph);
+            String lines[] = graph.read(() -> graphParser.serialize(graph));
             for (String line : lines) {
-                Terminal.printLine(line);
+                output.printLine(line);
             }
         }
     }
 
+    /**
+     * This command saves the graph into a binary snapshot file, from which the
+     * program can be started without reading the map file again
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void save(String[] args, RouteGraph graph, CommandOutput output) {
+        try {
+            RouteGraphFile.save(graph, args[0]);
+            output.printLine("OK");
+        } catch (IOException ex) {
+            output.printErrorMessage("Cannot save the graph to " + args[0]);
+        }
+    }
+
     /**
      * This command show all adjacent cities to a given one
      *
      * @param args The arguments of the command
      * @param graph The graph on which the command should be executed
-     * @param errorHandler Error handler that can take care of errors that
-     * happen during the command's execution
+     * @param output Takes the output and the errors of the command
      */
-    private void nodes(String[] args, RouteGraph graph, ErrorHandler errorHandler) {
+    private void nodes(String[] args, RouteGraph graph, CommandOutput output) {
         try {
             final String city = args[0];
-            if (!RouteGraph.isValidCityName(city)) {
-                errorHandler.printErrorMessage("Invalid city name");
+            if (!CommandArguments.hasValidCityNames(output, city)) {
                 return;
             }
             List<String> neighbors = graph.neighbors(city);
-            neighbors.forEach(c -> Terminal.printLine(c));
+            neighbors.forEach(c -> output.printLine(c));
         } catch (VertexDoesNotExistException ex) {
-            errorHandler.handelException(ex);
+            output.handelException(ex);
         }
     }
 
@@ -330,15 +402,127 @@ public final class CommandCall {
      *
      * @param args The arguments of the command
      * @param graph The graph on which the command should be executed
-     * @param errorHandler Error handler that can take care of errors that
-     * happen during the command's execution
+     * @param output Takes the output and the errors of the command
      */
-    private void vertices(String[] args, RouteGraph graph, ErrorHandler errorHandler) {
+    private void vertices(String[] args, RouteGraph graph, CommandOutput output) {
         if (graph.vertices().isEmpty()) {
-            Terminal.printLine("");
+            output.printLine("");
         } else {
             List<String> cities = graph.vertices();
-            cities.forEach(c -> Terminal.printLine(c));
+            cities.forEach(c -> output.printLine(c));
+        }
+    }
+
+    /**
+     * This command changes the way in which the best paths by given criterion
+     * are searched. With the criterion 'all' it changes the way in which all
+     * paths are enumerated
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void mode(String[] args, RouteGraph graph, CommandOutput output) {
+        try {
+            final String criterion = args[0];
+            if (criterion.equals("all")) {
+                EnumerationMode enumeration = EnumerationMode.fromName(args[1]);
+                if (enumeration == null) {
+                    output.printErrorMessage("There is no search mode with this name");
+                    return;
+                }
+                enumerationMode = enumeration;
+                output.printLine("OK");
+                return;
+            }
+            final SearchMode mode = SearchMode.fromName(args[1]);
+            // fails for an unknown criterion
+            graph.getWeigthStrategy(criterion);
+            if (mode == null) {
+                output.printErrorMessage("There is no search mode with this name");
+                return;
+            }
+            searchModes.put(criterion, mode);
+            output.printLine("OK");
+        } catch (WeigthStrategyDoesNotExist ex) {
+            output.handelException(ex);
+        }
+    }
+
+    /**
+     * Helper command for finding the search mode that was chosen for a
+     * criterion
+     *
+     * @param criterion The name of the weighting strategy
+     * @return The search mode of the criterion, the Dijkstra search if none
+     * was chosen
+     */
+    private SearchMode getSearchMode(String criterion) {
+        return searchModes.getOrDefault(criterion, SearchMode.DIJKSTRA);
+    }
+
+    /**
+     * This command checks if there is a route between two cities
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void connected(String[] args, RouteGraph graph, CommandOutput output) {
+        try {
+            final String firstCity = args[0];
+            final String secondCity = args[1];
+            if (!CommandArguments.hasValidCityNames(output, firstCity, secondCity)) {
+                return;
+            }
+            output.printLine(String.valueOf(graph.connected(firstCity, secondCity)));
+        } catch (VertexDoesNotExistException ex) {
+            output.handelException(ex);
+        }
+    }
+
+    /**
+     * This command shows how often the results of the searches were taken from
+     * the route cache
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void stats(String[] args, RouteGraph graph, CommandOutput output) {
+        output.printLine("hits " + routeCache.getHits());
+        output.printLine("misses " + routeCache.getMisses());
+        output.printLine("entries " + routeCache.size());
+    }
+
+    /**
+     * This command finds the 'lengths' of the best paths by given criterion
+     * between every city of one list and every city of another list. Every
+     * city of the first list gets one line with the lengths to the cities of
+     * the second list, or '-' where there is no route.
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void matrix(String[] args, RouteGraph graph, CommandOutput output) {
+        try {
+            final String[] origins = args[0].split(CommandArguments.LIST_SEPARATOR);
+            final String[] destinations = args[1].split(CommandArguments.LIST_SEPARATOR);
+            final String criterion = args[2];
+            if (!CommandArguments.hasValidCityNames(output, origins)
+                    || !CommandArguments.hasValidCityNames(output, destinations)) {
+                return;
+            }
+
+            RouteGraphWeighStrategy weigthStrategy = graph.getWeigthStrategy(criterion);
+            RouteGraphSnapshot snapshot = graph.getSnapshot();
+            int[] originIds = CommandArguments.getIds(origins, snapshot::getId);
+            int[] destinationIds = CommandArguments.getIds(destinations, snapshot::getId);
+            GraphOperations.forEachDistanceRow(snapshot, originIds, destinationIds,
+                    weigthStrategy.getWeights(snapshot), row -> CommandArguments.printRow(row, output));
+        } catch (VertexDoesNotExistException | WeigthStrategyDoesNotExist ex) {
+            output.handelException(ex);
         }
     }
 }
@@ -0,0 +1,90 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.Utils.CommandOutput;
+import edu.kit.informatik.Utils.WriterOutput;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Serves the commands to many clients at the same time over TCP connections
+ * on the local machine. Every connection is a session with the same line
+ * protocol as the command line: the client sends one command in every line
+ * and gets the output of the command back. The session ends with the quit
+ * command or when the client closes the connection. All sessions work on the
+ * same route graph, so the graph is only loaded once, but every session has
+ * it's own commands, for a route graph with their own search modes,
+ * enumeration mode and route cache.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class CommandServer {
+
+    private static final int BACKLOG = 50;
+
+    private CommandServer() {
+
+    }
+
+    /**
+     * Accepts connections until the program is stopped. Every session runs on
+     * a thread of it's own, the threads of ended sessions are used again.
+     *
+     * @param port The port on the loopback address on which the server listens
+     * @param sessionCommands Creates the commands of every session, all on the
+     * same graph
+     * @param errorHandler Takes the errors of sessions that fail because of
+     * their connection. It is flushed after every error, as the connection of
+     * the session can not take the error anymore
+     * @throws IOException If the server can not listen on the port
+     */
+    public static void serve(int port, Supplier<CommandSet> sessionCommands, CommandOutput errorHandler)
+            throws IOException {
+
+        ExecutorService sessions = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress())) {
+            while (true) {
+                Socket client = server.accept();
+                sessions.execute(() -> runSession(client, sessionCommands.get(), errorHandler));
+            }
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    /**
+     * Runs the commands of one client and sends the output back after every
+     * command
+     */
+    private static void runSession(Socket client, CommandSet commands, CommandOutput errorHandler) {
+
+        try (Socket connection = client;
+                BufferedReader input = new BufferedReader(
+                        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter writer = new PrintWriter(new BufferedWriter(
+                        new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8)))) {
+
+            WriterOutput output = new WriterOutput(writer);
+            String command;
+            while (!output.checkError() && (command = input.readLine()) != null && !commands.isQuit(command)) {
+                commands.execute(command, output);
+                output.flush();
+            }
+        } catch (IOException ex) {
+            errorHandler.handelException(ex);
+            errorHandler.flush();
+        }
+    }
+
+}
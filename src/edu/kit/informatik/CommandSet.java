@@ -0,0 +1,55 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.Utils.CommandOutput;
+
+/**
+ * The commands of one session on a graph, which the command line, the batch
+ * mode and the server run one line of input after the other.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public interface CommandSet {
+
+    /**
+     * The command that ends the input
+     */
+    String QUIT_COMMAND = "quit";
+
+    /**
+     * Checks if a line of input is the command that ends the input
+     *
+     * @param command A line of input
+     * @return true if it is the quit command
+     */
+    default boolean isQuit(String command) {
+        return command.split(" ")[0].equals(QUIT_COMMAND);
+    }
+
+    /**
+     * Checks if a command only reads the graph
+     *
+     * @param command A line of input
+     * @return true if the command can run at the same time as other read-only
+     * commands
+     */
+    boolean isReadOnly(String command);
+
+    /**
+     * Prepares the graph for a group of read-only commands that run in
+     * parallel, so they do not all build the same indexes
+     */
+    default void prepareReadOnly() {
+
+    }
+
+    /**
+     * Executes one line of input
+     *
+     * @param command The line of input, the name of the command and it's
+     * arguments
+     * @param output Takes the output and the errors of the command
+     */
+    void execute(String command, CommandOutput output);
+
+}
@@ -2,10 +2,19 @@ package edu.kit.informatik;
 
 import edu.kit.informatik.Utils.RouteGraphParser;
 import edu.kit.informatik.Exceptions.GraphParseException;
+import edu.kit.informatik.RouteGraph.MappedRouteGraph;
 import edu.kit.informatik.RouteGraph.RouteGraph;
+import edu.kit.informatik.RouteGraph.RouteGraphFile;
 import edu.kit.informatik.Utils.BasicErrorHandler;
 import edu.kit.informatik.Utils.ErrorHandler;
 import edu.kit.informatik.Utils.ParseErrorHandler;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
 
 /**
  *
@@ -14,6 +23,11 @@ import edu.kit.informatik.Utils.ParseErrorHandler;
  */
 public final class MainClass {
 
+    private static final String BATCH_OPTION = "--batch";
+    private static final String SERVER_OPTION = "--server";
+    private static final String SNAPSHOT_OPTION = "--snapshot";
+    private static final String MAPPED_OPTION = "--mapped";
+
     private MainClass() {
 
     }
@@ -21,25 +35,67 @@ public final class MainClass {
     /**
      * The program main entering point
      *
-     * @param args the command line arguments
+     * @param args the command line arguments: the graph file, before which
+     * the snapshot option says that it is a snapshot file written by the save
+     * command, and the mapped option that it is such a file which should be
+     * mapped into memory and only be read, and optionally the batch option
+     * followed by a file with commands or the server option followed by a
+     * port. Without the file the batch commands are read from the standard
+     * input
      */
     public static void main(String[] args) {
 
-        if (args.length != 1) {
-            Terminal.printLine("Error, USAGE: <input graph file>");
+        boolean snapshot = args.length > 0 && args[0].equals(SNAPSHOT_OPTION);
+        boolean mapped = args.length > 0 && args[0].equals(MAPPED_OPTION);
+        int first = snapshot || mapped ? 1 : 0;
+        int count = args.length - first;
+        boolean batch = count > 1 && args[first + 1].equals(BATCH_OPTION);
+        boolean server = count == 3 && args[first + 1].equals(SERVER_OPTION);
+        if (count < 1 || count > 3 || (count > 1 && !batch && !server)) {
+            Terminal.printLine("Error, USAGE: [" + SNAPSHOT_OPTION + " | " + MAPPED_OPTION + "] <input graph file> ["
+                    + BATCH_OPTION + " [command file] | " + SERVER_OPTION + " <port>]");
             System.exit(1);
         }
-        String file = args[0];
+        String file = args[first];
         ErrorHandler errorHandler = new ParseErrorHandler();
-        RouteGraphParser parser = new RouteGraphParser();
-        RouteGraph graph = null;
+        Supplier<CommandSet> commands = null;
         try {
-            graph = parser.deserialize(file, new RouteGraph());
+            if (mapped) {
+                MappedRouteGraph graph = new MappedRouteGraph(file);
+                commands = () -> new MappedCommandCall(graph);
+            } else {
+                RouteGraphParser parser = new RouteGraphParser();
+                RouteGraph graph = snapshot ? RouteGraphFile.load(file, new RouteGraph())
+                        : parser.deserialize(file, new RouteGraph());
+                commands = () -> new CommandCall(graph, parser);
+            }
         } catch (GraphParseException ex) {
             errorHandler.handelException(ex);
         }
-        errorHandler = new BasicErrorHandler();
-        CommandLine.beginInputSequence(errorHandler, graph, parser);
+        BasicErrorHandler output = new BasicErrorHandler();
+        if (server) {
+            try {
+                CommandServer.serve(Integer.parseInt(args[first + 2]), commands, output);
+            } catch (NumberFormatException ex) {
+                output.printErrorMessage("Bad input for a integer value");
+            } catch (IOException | IllegalArgumentException ex) {
+                output.handelException(ex);
+            }
+            output.flush();
+            System.exit(1);
+        }
+        if (!batch) {
+            CommandLine.beginInputSequence(output, commands.get());
+            return;
+        }
+        try (InputStream in = count == 3 ? new FileInputStream(args[first + 2]) : System.in) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            CommandLine.runBatch(reader, output, commands.get());
+        } catch (IOException ex) {
+            output.handelException(ex);
+            output.flush();
+            System.exit(1);
+        }
     }
 
 }
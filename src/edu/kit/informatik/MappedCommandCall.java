@@ -0,0 +1,216 @@
+package edu.kit.informatik;
+
+import edu.kit.informatik.BasicGraphs.GraphCommand;
+import edu.kit.informatik.BasicGraphs.GraphOperations;
+import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
+import edu.kit.informatik.Exceptions.WeigthStrategyDoesNotExist;
+import edu.kit.informatik.RouteGraph.MappedRouteGraph;
+import edu.kit.informatik.Utils.CommandOutput;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The read-only commands on a route graph that is mapped from a snapshot file.
+ * They print the same as the commands of CommandCall on the same graph, but
+ * the best paths are always searched with the Dijkstra algorithm, so there is
+ * no mode command, and all paths are not enumerated. The commands that change
+ * or save the graph do not exist here. As none of the commands changes
+ * anything, all of them can run at the same time.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class MappedCommandCall implements CommandSet {
+
+    private final Map<String, GraphCommand<String, MappedRouteGraph>> commands;
+    private final MappedRouteGraph graph;
+
+    /**
+     * Creates the commands for a mapped route graph
+     *
+     * @param graph The graph on which the commands will operate
+     */
+    public MappedCommandCall(MappedRouteGraph graph) {
+        this.graph = graph;
+        commands = new HashMap<>();
+        commands.put("search", new GraphCommand<>(this::search, 3));
+        commands.put("route", new GraphCommand<>(this::route, 3));
+        commands.put("nodes", new GraphCommand<>(this::nodes, 1));
+        commands.put("vertices", new GraphCommand<>(this::vertices, 0));
+        commands.put("connected", new GraphCommand<>(this::connected, 2));
+        commands.put("matrix", new GraphCommand<>(this::matrix, 3));
+    }
+
+    @Override
+    public boolean isReadOnly(String command) {
+        return true;
+    }
+
+    @Override
+    public void execute(String command, CommandOutput output) {
+        CommandArguments.execute(commands, graph, command, output);
+    }
+
+    /**
+     * This command find the 'length' of the best path by given criterion
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void search(String[] args, MappedRouteGraph graph, CommandOutput output) {
+        try {
+            final String startCity = args[0];
+            final String endCity = args[1];
+            final String criterion = args[2];
+            if (!CommandArguments.hasValidCityNames(output, startCity, endCity)) {
+                return;
+            }
+
+            MappedRouteGraph.MappedWeightStrategy weigthStrategy = graph.getWeigthStrategy(criterion);
+            int[] path = findRoute(graph, startCity, endCity, weigthStrategy, output);
+            if (path != null) {
+                output.printLine(String.valueOf(
+                        GraphOperations.getPathLenth(graph, path, weigthStrategy.getWeights())));
+            }
+        } catch (VertexDoesNotExistException | WeigthStrategyDoesNotExist ex) {
+            output.handelException(ex);
+        }
+    }
+
+    /**
+     * This command find the best path by given criterion
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void route(String[] args, MappedRouteGraph graph, CommandOutput output) {
+        try {
+            final String startCity = args[0];
+            final String endCity = args[1];
+            final String criterion = args[2];
+            if (!CommandArguments.hasValidCityNames(output, startCity, endCity)) {
+                return;
+            }
+
+            MappedRouteGraph.MappedWeightStrategy weigthStrategy = graph.getWeigthStrategy(criterion);
+            int[] path = findRoute(graph, startCity, endCity, weigthStrategy, output);
+            if (path != null) {
+                CommandArguments.printPath(path, graph::getName, output);
+            }
+        } catch (VertexDoesNotExistException | WeigthStrategyDoesNotExist ex) {
+            output.handelException(ex);
+        }
+    }
+
+    /**
+     * Helper command for finding the best path between two cities
+     *
+     * @param graph The graph in which the path is searched
+     * @param startCity The first city of the path
+     * @param endCity The last city of the path
+     * @param weigthStrategy The strategy that decides which path is the best
+     * @param output Takes the error when there is no path
+     * @return The ids of the cities on the path or null if there is no path
+     * @throws VertexDoesNotExistException If one of the cities does not exist
+     */
+    private int[] findRoute(MappedRouteGraph graph, String startCity, String endCity,
+            MappedRouteGraph.MappedWeightStrategy weigthStrategy, CommandOutput output)
+            throws VertexDoesNotExistException {
+        int end = graph.getId(endCity);
+        int start = graph.getId(startCity);
+        int[] path = weigthStrategy.findPath(start, end);
+        if (path == null) {
+            CommandArguments.printNoRoute(startCity, endCity, output);
+        }
+        return path;
+    }
+
+    /**
+     * This command show all adjacent cities to a given one
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void nodes(String[] args, MappedRouteGraph graph, CommandOutput output) {
+        try {
+            final String city = args[0];
+            if (!CommandArguments.hasValidCityNames(output, city)) {
+                return;
+            }
+            List<String> neighbors = graph.neighbors(city);
+            neighbors.forEach(c -> output.printLine(c));
+        } catch (VertexDoesNotExistException ex) {
+            output.handelException(ex);
+        }
+    }
+
+    /**
+     * This command shows all cities in the graph
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void vertices(String[] args, MappedRouteGraph graph, CommandOutput output) {
+        if (graph.getCityCount() == 0) {
+            output.printLine("");
+        } else {
+            List<String> cities = graph.vertices();
+            cities.forEach(c -> output.printLine(c));
+        }
+    }
+
+    /**
+     * This command checks if there is a route between two cities
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void connected(String[] args, MappedRouteGraph graph, CommandOutput output) {
+        try {
+            final String firstCity = args[0];
+            final String secondCity = args[1];
+            if (!CommandArguments.hasValidCityNames(output, firstCity, secondCity)) {
+                return;
+            }
+            output.printLine(String.valueOf(graph.connected(graph.getId(firstCity), graph.getId(secondCity))));
+        } catch (VertexDoesNotExistException ex) {
+            output.handelException(ex);
+        }
+    }
+
+    /**
+     * This command finds the 'lengths' of the best paths by given criterion
+     * between every city of one list and every city of another list, see
+     * CommandCall
+     *
+     * @param args The arguments of the command
+     * @param graph The graph on which the command should be executed
+     * @param output Takes the output and the errors of the command
+     */
+    private void matrix(String[] args, MappedRouteGraph graph, CommandOutput output) {
+        try {
+            final String[] origins = args[0].split(CommandArguments.LIST_SEPARATOR);
+            final String[] destinations = args[1].split(CommandArguments.LIST_SEPARATOR);
+            final String criterion = args[2];
+            if (!CommandArguments.hasValidCityNames(output, origins)
+                    || !CommandArguments.hasValidCityNames(output, destinations)) {
+                return;
+            }
+
+            MappedRouteGraph.MappedWeightStrategy weigthStrategy = graph.getWeigthStrategy(criterion);
+            int[] originIds = CommandArguments.getIds(origins, graph::getId);
+            int[] destinationIds = CommandArguments.getIds(destinations, graph::getId);
+            GraphOperations.forEachDistanceRow(graph, originIds, destinationIds, weigthStrategy.getWeights(),
+                    row -> CommandArguments.printRow(row, output));
+        } catch (VertexDoesNotExistException | WeigthStrategyDoesNotExist ex) {
+            output.handelException(ex);
+        }
+    }
+
+}
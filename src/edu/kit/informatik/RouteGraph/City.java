@@ -8,6 +8,7 @@ package edu.kit.informatik.RouteGraph;
 public class City {
 
     private final String name;
+    private final int id;
 
     /**
      * Basic constructor
@@ -15,7 +16,19 @@ public class City {
      * @param name The name of the city to be created
      */
     public City(String name) {
+        this(name, -1);
+    }
+
+    /**
+     * Makes a city that is part of a graph
+     *
+     * @param name The name of the city to be created
+     * @param id The id of the name of the city in the city dictionary of it's
+     * graph
+     */
+    public City(String name, int id) {
         this.name = name;
+        this.id = id;
     }
 
     /**
@@ -27,6 +40,16 @@ public class City {
         return name;
     }
 
+    /**
+     * Basic getter
+     *
+     * @return The id of the name of the city in the city dictionary of it's
+     * graph or -1 if the city is not part of a graph
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * A factory method to be used when temporary city is used...cus...you know,
      * 'new' is bad for such situations
@@ -49,4 +72,9 @@ public class City {
         return ((City) (obj)).getName().equals(this.getName());
     }
 
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
 }
@@ -0,0 +1,105 @@
+package edu.kit.informatik.RouteGraph;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The symbol table of the names of the cities of a route graph. Every name is
+ * kept once, in lower case, and gets a dense int id the first time it is
+ * interned. The id of a name never changes, also when the city is removed
+ * from the graph and added again, so the graph, it's snapshots and the parser
+ * can work with the ids and compare ints instead of strings. Names can be
+ * looked up from many threads while another thread interns new ones.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class CityDictionary {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<String, Integer> ids;
+    private volatile String[] names;
+    private volatile int size;
+
+    /**
+     * Creates an empty dictionary
+     */
+    public CityDictionary() {
+        ids = new ConcurrentHashMap<>();
+        names = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Gives the id of a name and adds the name if it is new
+     *
+     * @param name The name of a city in any case
+     * @return The id of the name
+     */
+    public int intern(String name) {
+        String canonical = name.toLowerCase();
+        Integer id = ids.get(canonical);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(canonical);
+            if (id != null) {
+                return id;
+            }
+            int next = size;
+            if (next == names.length) {
+                names = Arrays.copyOf(names, next * 2);
+            }
+            names[next] = canonical;
+            ids.put(canonical, next);
+            size = next + 1;
+            return next;
+        }
+    }
+
+    /**
+     * Looks up the id of a name without adding it
+     *
+     * @param name The name of a city in any case
+     * @return The id of the name or -1 if the name was never interned
+     */
+    public int find(String name) {
+        Integer id = ids.get(name.toLowerCase());
+        return id == null ? -1 : id;
+    }
+
+    /**
+     *
+     * @param id The id of a name
+     * @return The name in lower case
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Gives the name in lower case. If the name was interned, the kept string
+     * is given, so no new string is made and the lookups with it in the maps
+     * of the graph find the same instance. Unknown names are not added.
+     *
+     * @param name The name of a city in any case
+     * @return The name in lower case
+     */
+    public String canonical(String name) {
+        String canonical = name.toLowerCase();
+        Integer id = ids.get(canonical);
+        return id == null ? canonical : names[id];
+    }
+
+    /**
+     *
+     * @return The count of the names that were interned, which is one more
+     * than the biggest id
+     */
+    public int size() {
+        return size;
+    }
+
+}
@@ -156,6 +156,17 @@ public class Connection {
                 && con.getFromCity().getName().equals(toCity.getName()));
     }
 
+    /**
+     * The hash code does not depend on the order of the cities as a connection
+     * between a and b is the same as the one between b and a
+     *
+     * @return The hash code of the connection
+     */
+    @Override
+    public int hashCode() {
+        return toCity.hashCode() ^ fromCity.hashCode();
+    }
+
     /**
      * A factory method to be used when temporary connection is used...cus...you
      * know, 'new' is bad for such situations
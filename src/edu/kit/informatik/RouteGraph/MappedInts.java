@@ -0,0 +1,91 @@
+package edu.kit.informatik.RouteGraph;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A section of little endian ints of a file that is mapped into memory. The
+ * section is mapped in windows of at most 2^28 ints, so it can be larger than
+ * one mapped buffer. The ints stay in the page cache of the operating system
+ * and not on the heap, unless a copy of the whole section is asked for, which
+ * is then kept. Reading them from different threads is safe.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+final class MappedInts {
+
+    private static final int WINDOW_SHIFT = 28;
+    private static final int WINDOW_MASK = (1 << WINDOW_SHIFT) - 1;
+
+    private final IntBuffer[] windows;
+    private final int size;
+    private volatile int[] copy;
+
+    /**
+     *
+     * @param channel The file. It can be closed after the section was mapped
+     * @param position The position of the first byte of the section
+     * @param size The count of the ints in the section
+     * @throws IOException If the section can not be mapped
+     */
+    MappedInts(FileChannel channel, long position, int size) throws IOException {
+        this.size = size;
+        this.windows = new IntBuffer[(int) (((long) size + WINDOW_MASK) >>> WINDOW_SHIFT)];
+        for (int i = 0; i < windows.length; i++) {
+            int start = i << WINDOW_SHIFT;
+            int length = Math.min(size - start, WINDOW_MASK + 1);
+            windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, position + (long) start * Integer.BYTES,
+                    (long) length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    /**
+     *
+     * @param index The index of an int in the section
+     * @return The int
+     */
+    int get(int index) {
+        return windows[index >>> WINDOW_SHIFT].get(index & WINDOW_MASK);
+    }
+
+    /**
+     *
+     * @return The count of the ints in the section
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     *
+     * @return A copy of the section on the heap
+     */
+    int[] toArray() {
+        int[] values = new int[size];
+        for (int i = 0; i < windows.length; i++) {
+            IntBuffer window = windows[i].duplicate();
+            window.get(values, i << WINDOW_SHIFT, window.remaining());
+        }
+        return values;
+    }
+
+    /**
+     * Copies the section onto the heap on the first call and gives the same
+     * copy on every following one. Threads that ask for it at the same time
+     * may each make a copy, but all of them are the same.
+     *
+     * @return The ints of the section on the heap, which must not be changed
+     */
+    int[] getArray() {
+        int[] values = copy;
+        if (values == null) {
+            values = toArray();
+            copy = values;
+        }
+        return values;
+    }
+
+}
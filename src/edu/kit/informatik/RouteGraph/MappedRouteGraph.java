@@ -0,0 +1,441 @@
+package edu.kit.informatik.RouteGraph;
+
+import edu.kit.informatik.BasicGraphs.CompactGraph;
+import edu.kit.informatik.BasicGraphs.Graph;
+import edu.kit.informatik.BasicGraphs.GraphOperations;
+import edu.kit.informatik.BasicGraphs.GraphWeightStrategy;
+import edu.kit.informatik.Exceptions.GraphParseException;
+import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
+import edu.kit.informatik.Exceptions.WeigthStrategyDoesNotExist;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A route graph that is read straight from a snapshot file written by
+ * RouteGraphFile. The names, the adjacency and the weights stay in the mapped
+ * file, so they are held by the page cache of the operating system and not on
+ * the heap, and the size of the heap does not grow with the size of the map.
+ * The graph only keeps the mapped buffers. Names are found by a binary search
+ * over the sorted ids in the file and the lists of vertices and neighbors are
+ * views that decode the names when they are read. The graph can not be
+ * changed and can be shared between threads. It works with the operations of
+ * GraphOperations on graphs and weighting strategies and is a compact graph
+ * for the ones on ids, so the searches of it's strategies are the same ones
+ * that run on the snapshots of a route graph. Those walk plain int arrays, so
+ * the offsets, the targets and the weights of a strategy are copied out of
+ * the file on the first search that needs them and kept, only the names stay
+ * in the file.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class MappedRouteGraph implements Graph<String>, CompactGraph {
+
+    private final int cityCount;
+    private final MappedInts nameOffsets;
+    private final ByteBuffer names;
+    private final MappedInts nameOrder;
+    private final MappedInts offsets;
+    private final MappedInts targets;
+    private final MappedWeightStrategy distanceStrategy;
+    private final MappedWeightStrategy timeStrategy;
+    private final MappedWeightStrategy optimalStrategy;
+
+    /**
+     * Maps a snapshot file into memory. Only the header and the size of the
+     * file are checked, nothing is copied onto the heap.
+     *
+     * @param file The path of the snapshot file
+     * @throws GraphParseException If the file can not be read or is not a
+     * snapshot file of a supported version
+     */
+    public MappedRouteGraph(String file) throws GraphParseException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            RouteGraphFile.Layout layout = RouteGraphFile.Layout.read(channel, file);
+            cityCount = layout.getCityCount();
+            nameOffsets = new MappedInts(channel, layout.getNameOffsetsPosition(), cityCount + 1);
+            names = channel.map(FileChannel.MapMode.READ_ONLY, layout.getNamesPosition(), layout.getNameBytes());
+            nameOrder = new MappedInts(channel, layout.getNameOrderPosition(), cityCount);
+            offsets = new MappedInts(channel, layout.getOffsetsPosition(), cityCount + 1);
+            targets = new MappedInts(channel, layout.getEdgeColumnPosition(RouteGraphFile.TARGETS),
+                    layout.getEdgeCount());
+            distanceStrategy = new MappedWeightStrategy(this, new MappedInts(channel,
+                    layout.getEdgeColumnPosition(RouteGraphFile.DISTANCES), layout.getEdgeCount()), false);
+            timeStrategy = new MappedWeightStrategy(this, new MappedInts(channel,
+                    layout.getEdgeColumnPosition(RouteGraphFile.TIMES), layout.getEdgeCount()), false);
+            optimalStrategy = new MappedWeightStrategy(this, new MappedInts(channel,
+                    layout.getEdgeColumnPosition(RouteGraphFile.OPTIMALS), layout.getEdgeCount()), true);
+        } catch (IOException ex) {
+            throw new GraphParseException("Cannot read the snapshot file " + file);
+        }
+    }
+
+    @Override
+    public boolean contains(String vert) {
+        return findId(vert) >= 0;
+    }
+
+    @Override
+    public boolean adjacent(String vert1, String vert2) throws VertexDoesNotExistException {
+        return findEdge(getId(vert1), getId(vert2)) >= 0;
+    }
+
+    @Override
+    public List<String> vertices() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= cityCount) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + cityCount);
+                }
+                return getName(index);
+            }
+
+            @Override
+            public int size() {
+                return cityCount;
+            }
+        };
+    }
+
+    @Override
+    public List<String> neighbors(String vert) throws VertexDoesNotExistException {
+        int id = getId(vert);
+        int first = offsets.get(id);
+        int count = offsets.get(id + 1) - first;
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                if (index < 0 || index >= count) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+                }
+                return getName(targets.get(first + index));
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+
+    /**
+     * The mapped graph can not be changed
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addVertex(String vert) {
+        throw readOnly();
+    }
+
+    /**
+     * The mapped graph can not be changed
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeVertex(String vert) {
+        throw readOnly();
+    }
+
+    /**
+     * The mapped graph can not be changed
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void addEdge(String vert1, String vert2) {
+        throw readOnly();
+    }
+
+    /**
+     * The mapped graph can not be changed
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void removeEdge(String vert1, String vert2) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("A mapped route graph can not be changed");
+    }
+
+    /**
+     *
+     * @return The count of the cities in the graph
+     */
+    public int getCityCount() {
+        return cityCount;
+    }
+
+    @Override
+    public int vertexCount() {
+        return cityCount;
+    }
+
+    /**
+     * Copied out of the file on the first call
+     */
+    @Override
+    public int[] getOffsets() {
+        return offsets.getArray();
+    }
+
+    /**
+     * Copied out of the file on the first call
+     */
+    @Override
+    public int[] getTargets() {
+        return targets.getArray();
+    }
+
+    /**
+     * Gets one of the weighting strategy of the graph by it's name, like
+     * RouteGraph.getWeigthStrategy does
+     *
+     * @param strategy The name of the strategy
+     * @return The strategy
+     * @throws WeigthStrategyDoesNotExist If the there is no strategy with this
+     * name
+     */
+    public MappedWeightStrategy getWeigthStrategy(String strategy)
+            throws WeigthStrategyDoesNotExist {
+        switch (strategy) {
+            case "route":
+                return distanceStrategy;
+            case "time":
+                return timeStrategy;
+            case "optimal":
+                return optimalStrategy;
+            default:
+                throw new WeigthStrategyDoesNotExist("There is no weight strategy with this name in this route graph");
+        }
+    }
+
+    /**
+     *
+     * @return A weighting strategy which represents the distance between two
+     * cities in km
+     */
+    public MappedWeightStrategy getDistanceStrategy() {
+        return distanceStrategy;
+    }
+
+    /**
+     *
+     * @return A weighting strategy which represents the time between two cities
+     * in min
+     */
+    public MappedWeightStrategy getTimeStrategy() {
+        return timeStrategy;
+    }
+
+    /**
+     *
+     * @return A weighting strategy which represents the optimal path-length
+     * value between two cities
+     */
+    public MappedWeightStrategy getOptimalStrategy() {
+        return optimalStrategy;
+    }
+
+    /**
+     * Checks if there is a route between two cities with a breadth first
+     * search from the first one
+     *
+     * @param id1 The id of the first city
+     * @param id2 The id of the second city
+     * @return true if both cities are in the same connected component
+     */
+    public boolean connected(int id1, int id2) {
+        boolean[] seen = new boolean[cityCount];
+        int[] queue = new int[cityCount];
+        int head = 0;
+        int tail = 0;
+        seen[id1] = true;
+        queue[tail++] = id1;
+        while (head < tail) {
+            int vert = queue[head++];
+            if (vert == id2) {
+                return true;
+            }
+            int last = offsets.get(vert + 1);
+            for (int edge = offsets.get(vert); edge < last; edge++) {
+                int next = targets.get(edge);
+                if (!seen[next]) {
+                    seen[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     *
+     * @param id The id of a city
+     * @return The name of the city
+     */
+    public String getName(int id) {
+        int start = nameOffsets.get(id);
+        byte[] bytes = new byte[nameOffsets.get(id + 1) - start];
+        ByteBuffer name = names.duplicate();
+        name.position(start);
+        name.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the id of a city
+     *
+     * @param vert The name of the city
+     * @return The id of the city
+     * @throws VertexDoesNotExistException If there is no such city in the
+     * graph
+     */
+    public int getId(String vert) throws VertexDoesNotExistException {
+        int id = findId(vert);
+        if (id < 0) {
+            throw new VertexDoesNotExistException("There is no city with the name " + vert + " in the graph");
+        }
+        return id;
+    }
+
+    /**
+     * Binary search over the ids of the cities sorted by the bytes of their
+     * names
+     *
+     * @return The id of the city or -1 if there is no city with the name
+     */
+    private int findId(String vert) {
+        byte[] key = vert.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = cityCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int id = nameOrder.get(middle);
+            int comparison = compareName(id, key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private int compareName(int id, byte[] key) {
+        int start = nameOffsets.get(id);
+        int length = nameOffsets.get(id + 1) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (names.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * Scans the adjacency of the first city for the second one
+     *
+     * @return The index of the edge or -1 if the cities are not connected
+     */
+    private int findEdge(int city1, int city2) {
+        int end = offsets.get(city1 + 1);
+        for (int edge = offsets.get(city1); edge < end; edge++) {
+            if (targets.get(edge) == city2) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * One of the weight columns of the mapped graph. The weights can not be
+     * changed. The searches run on the mapped graph as a compact graph with
+     * the weights copied out of the file, only the weight of a single edge is
+     * looked up by the names of it's cities.
+     */
+    public static final class MappedWeightStrategy implements GraphWeightStrategy<String, MappedRouteGraph> {
+
+        private final MappedRouteGraph graph;
+        private final MappedInts weights;
+        private final boolean ordered;
+
+        /**
+         *
+         * @param graph The mapped graph
+         * @param weights The weight of every edge of the graph
+         * @param ordered If the paths are searched like the optimal strategy
+         * of the route graph does, so the same path is found as the depth
+         * first search over all paths would
+         */
+        MappedWeightStrategy(MappedRouteGraph graph, MappedInts weights, boolean ordered) {
+            this.graph = graph;
+            this.weights = weights;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public MappedRouteGraph getGraph() {
+            return graph;
+        }
+
+        @Override
+        public int getWeigth(String vert1, String vert2) throws VertexDoesNotExistException {
+            int edge = graph.findEdge(graph.getId(vert1), graph.getId(vert2));
+            if (edge < 0) {
+                return Integer.MAX_VALUE;
+            }
+            return weights.get(edge);
+        }
+
+        /**
+         * The mapped graph can not be changed
+         *
+         * @throws UnsupportedOperationException always
+         */
+        @Override
+        public void setWeight(String vert1, String vert2, int weight) {
+            throw readOnly();
+        }
+
+        /**
+         *
+         * @return The weight of every edge of the graph in the order of the
+         * targets, copied out of the file on the first call
+         */
+        public int[] getWeights() {
+            return weights.getArray();
+        }
+
+        /**
+         * Finds the best path between two cities with the Dijkstra algorithm,
+         * the same path that the route graph finds in the Dijkstra search
+         * mode
+         *
+         * @param start The id of the first city
+         * @param end The id of the last city
+         * @return The ids of the cities on the path or null if there is no
+         * path
+         */
+        public int[] findPath(int start, int end) {
+            return ordered ? GraphOperations.getOptimalPathOrdered(graph, start, end, getWeights())
+                    : GraphOperations.getOptimalPathDijkstra(graph, start, end, getWeights());
+        }
+    }
+
+}
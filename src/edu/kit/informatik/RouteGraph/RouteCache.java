@@ -0,0 +1,145 @@
+package edu.kit.informatik.RouteGraph;
+
+import edu.kit.informatik.Utils.TinyLfuCache;
+
+/**
+ * Keeps the results of route searches for repeated queries. The results are
+ * only valid for the modification epoch of the route graph in which they were
+ * found, so the cache forgets all of them as soon as it sees a snapshot of a
+ * newer epoch. Readers that still hold a snapshot of an older epoch neither
+ * get nor change the kept results. Which results are kept is decided by a
+ * W-TinyLFU cache.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class RouteCache {
+
+    /**
+     * The count of the results that are kept when no other size is given
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final TinyLfuCache<String, Route> routes;
+    private long epoch;
+
+    /**
+     * Creates a cache with the default capacity
+     */
+    public RouteCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     *
+     * @param capacity The most results that are kept
+     */
+    public RouteCache(int capacity) {
+        this.routes = new TinyLfuCache<>(capacity);
+        this.epoch = -1;
+    }
+
+    /**
+     * Looks up the result of a search
+     *
+     * @param snapshot The snapshot of the graph on which the search is done
+     * @param key The key of the search (cities, criterion and search mode)
+     * @return The result or null if the search was not done in the epoch of
+     * the snapshot, was dropped out of the cache or the snapshot is older than
+     * the results in the cache
+     */
+    public synchronized Route get(RouteGraphSnapshot snapshot, String key) {
+        if (!moveTo(snapshot)) {
+            return null;
+        }
+        return routes.get(key);
+    }
+
+    /**
+     * Keeps the result of a search
+     *
+     * @param snapshot The snapshot of the graph on which the search was done
+     * @param key The key of the search (cities, criterion and search mode)
+     * @param route The result
+     */
+    public synchronized void put(RouteGraphSnapshot snapshot, String key, Route route) {
+        if (moveTo(snapshot)) {
+            routes.put(key, route);
+        }
+    }
+
+    /**
+     * Forgets the kept results when the snapshot is of a newer epoch
+     *
+     * @return false if the snapshot is older than the kept results
+     */
+    private boolean moveTo(RouteGraphSnapshot snapshot) {
+        if (snapshot.getEpoch() > epoch) {
+            routes.clear();
+            epoch = snapshot.getEpoch();
+        }
+        return snapshot.getEpoch() == epoch;
+    }
+
+    /**
+     *
+     * @return How many times a result was found in the cache
+     */
+    public long getHits() {
+        return routes.getHits();
+    }
+
+    /**
+     *
+     * @return How many times a result was not found in the cache
+     */
+    public long getMisses() {
+        return routes.getMisses();
+    }
+
+    /**
+     *
+     * @return The count of the results in the cache
+     */
+    public int size() {
+        return routes.size();
+    }
+
+    /**
+     * The result of a route search
+     */
+    public static final class Route {
+
+        private final int[] path;
+        private final int weight;
+
+        /**
+         *
+         * @param path The ids of the cities on the best path or null if there
+         * is no path
+         * @param weight The weight of the path
+         */
+        public Route(int[] path, int weight) {
+            this.path = path;
+            this.weight = weight;
+        }
+
+        /**
+         *
+         * @return The ids of the cities on the best path or null if there is
+         * no path
+         */
+        public int[] getPath() {
+            return path;
+        }
+
+        /**
+         *
+         * @return The weight of the path
+         */
+        public int getWeight() {
+            return weight;
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package edu.kit.informatik.RouteGraph;
 
+import edu.kit.informatik.BasicGraphs.BridgeIndex;
+import edu.kit.informatik.BasicGraphs.Connectivity;
+import edu.kit.informatik.BasicGraphs.DisjointSet;
 import edu.kit.informatik.BasicGraphs.Graph;
 import edu.kit.informatik.Exceptions.EdgeAlreadyExistsException;
 import edu.kit.informatik.Exceptions.EdgeDoesNotExistException;
@@ -11,9 +14,17 @@ import edu.kit.informatik.RouteGraph.WigthingStrategies.OptimalWeightStrategy;
 import edu.kit.informatik.RouteGraph.WigthingStrategies.RouteGraphWeighStrategy;
 import edu.kit.informatik.RouteGraph.WigthingStrategies.TimeWeigthStrategy;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -21,24 +32,58 @@ import java.util.stream.Collectors;
  * @author Stanislav
  * @version 0.0.42
  */
-public final class RouteGraph implements Graph<String> {
+public final class RouteGraph implements Graph<String>, Connectivity<String> {
 
     /**
      * The pattern that all city names should match
      */
     public static final String CITY_NAME_PATTERN = "[A-Za-z-]+";
 
-    private final List<City> cities;
-    private final List<Connection> connections;
+    private static final long EDGE_KEY_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final CityDictionary dictionary;
+    private final Set<Integer> cityIds;
+    private final Map<Long, Connection> connections;
     private final Map<String, RouteGraphWeighStrategy> weigthStrategies;
+    private final ReentrantReadWriteLock lock;
+    private final ReentrantLock snapshotBuild;
+    private final ThreadLocal<Long> changedEpochs;
+    private final Object componentsMonitor;
+    private volatile long modificationEpoch;
+    private volatile RouteGraphSnapshot snapshot;
+    private BridgeIndex bridges;
+    private DisjointSet components;
+    private City[] citiesById;
+    private Set<Integer>[] adjacency;
 
     /**
-     * Initializes a route graph with cities and connections between them.
+     * Initializes a route graph with cities and connections between them. The
+     * cities are found by the ids of their names in the city dictionary of the
+     * graph, the graph itself only keeps the ids in the order in which the
+     * cities were added, and the ids of the neighbors of every city are kept in a
+     * set at the id of the city. The connections are indexed by the unordered pair of the ids
+     * of their cities, so membership and adjacency checks and the lookup of
+     * the weights do not have to scan the whole graph.
+     * <p>
+     * The graph can be shared between threads. Changes are serialized by a
+     * write lock and the reads of the cities and connections share a read
+     * lock. The searches run on snapshots, which never change, and the last
+     * complete snapshot is read without any lock, also while a change is
+     * going on.
      */
     public RouteGraph() {
-        cities = new ArrayList<>();
-        connections = new ArrayList<>();
+        lock = new ReentrantReadWriteLock();
+        snapshotBuild = new ReentrantLock();
+        changedEpochs = ThreadLocal.withInitial(() -> 0L);
+        componentsMonitor = new Object();
+        dictionary = new CityDictionary();
+        citiesById = new City[0];
+        cityIds = new LinkedHashSet<>();
+        adjacency = newAdjacency(0);
+        connections = new LinkedHashMap<>();
         weigthStrategies = new HashMap<>();
+        bridges = new BridgeIndex();
+        components = new DisjointSet();
         weigthStrategies.put("time", new TimeWeigthStrategy(this));
         weigthStrategies.put("route", new DistanceWeightStrategy(this));
         weigthStrategies.put("optimal", new OptimalWeightStrategy(this));
@@ -47,103 +92,637 @@ public final class RouteGraph implements Graph<String> {
 
     @Override
     public boolean contains(String vert) {
-        return cities.contains(City.getEmptyCity(vert));
+        lock.readLock().lock();
+        try {
+            return findCity(vert) != null;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
 
     public boolean adjacent(String vert1, String vert2) throws VertexDoesNotExistException {
-        if (!contains(vert1)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert1 + " in the graph");
-        }
-        if (!contains(vert2)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert2 + " in the graph");
+        lock.readLock().lock();
+        try {
+            City city1 = getCity(vert1);
+            City city2 = getCity(vert2);
+            return connections.containsKey(getEdgeKey(city1, city2));
+        } finally {
+            lock.readLock().unlock();
         }
-
-        return this.connections.contains(Connection.getEmptyConnection(vert1, vert2));
     }
 
     @Override
     public List<String> vertices() {
-        return cities.stream().map(c -> c.getName()).collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            return cityIds.stream().map(id -> citiesById[id].getName()).collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public List<String> neighbors(String vert) throws VertexDoesNotExistException {
-        if (!contains(vert)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert + " in the graph");
+        lock.readLock().lock();
+        try {
+            Set<Integer> adjacent = adjacency[getCity(vert).getId()];
+            final List<String> neighborsSofar = new ArrayList<>(adjacent.size());
+            adjacent.forEach(id -> neighborsSofar.add(citiesById[id].getName()));
+            return neighborsSofar;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gives the neighbors of a city by their ids, so no name is looked up
+     *
+     * @param city The id of the city in the city dictionary
+     * @return The ids of the neighbors in the order in which they were
+     * connected
+     * @throws VertexDoesNotExistException If the city is not in the graph
+     */
+    public int[] neighbors(int city) throws VertexDoesNotExistException {
+        lock.readLock().lock();
+        try {
+            return neighborIds(getCity(city).getId());
+        } finally {
+            lock.readLock().unlock();
         }
-        final ArrayList<String> neighborsSofar = new ArrayList<>();
-        City temp = City.getEmptyCity(vert);
-        connections.forEach((Connection c) -> {
-            if (c.getFromCity().equals(temp)) {
-                neighborsSofar.add(c.getToCity().getName());
-            } else if (c.getToCity().equals(temp)) {
-                neighborsSofar.add(c.getFromCity().getName());
-            }
-        });
-        return neighborsSofar;
     }
 
     @Override
     public void addVertex(String vert) throws VertexAlreadyExistsException {
-        if (contains(vert)) {
-            throw new VertexAlreadyExistsException("There is already city with the name " + vert + " in the graph");
+        lock.writeLock().lock();
+        try {
+            int id = dictionary.intern(vert);
+            if (findCity(id) != null) {
+                throw new VertexAlreadyExistsException("There is already city with the name " + vert
+                        + " in the graph");
+            }
+            putCity(id);
+            markModified();
+        } finally {
+            lock.writeLock().unlock();
         }
-        cities.add(new City(vert));
     }
 
     @Override
     public void removeVertex(String vert) throws VertexDoesNotExistException {
-        if (!contains(vert)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert + " in the graph");
+        lock.writeLock().lock();
+        try {
+            int id = getCity(vert).getId();
+            Set<Integer> adjacent = adjacency[id];
+            adjacency[id] = null;
+            adjacent.forEach(neighbor -> {
+                connections.remove(getEdgeKey(id, neighbor));
+                if (neighbor != id) {
+                    adjacency[neighbor].remove(id);
+                }
+            });
+            cityIds.remove(id);
+            citiesById[id] = null;
+            components = null;
+            if (bridges != null) {
+                if (adjacent.isEmpty() && bridges.isCompact()) {
+                    bridges.removeVertex(id);
+                } else {
+                    bridges = null;
+                }
+            }
+            markModified();
+        } finally {
+            lock.writeLock().unlock();
         }
+    }
 
-        City temp = City.getEmptyCity(vert);
-        cities.remove(City.getEmptyCity(vert));
-        for (int i = 0; i < connections.size(); i++) {
-            if (connections.get(i).getFromCity().equals(temp)
-                    || connections.get(i).getToCity().equals(temp)) {
-                connections.remove(i);
+    @Override
+    public void addEdge(String vert1, String vert2) throws VertexDoesNotExistException, EdgeAlreadyExistsException {
+        lock.writeLock().lock();
+        try {
+            City city1 = getCity(vert1);
+            City city2 = getCity(vert2);
+            Long key = getEdgeKey(city1, city2);
+            if (connections.containsKey(key)) {
+                throw new EdgeAlreadyExistsException("There already is a connection between " + vert1
+                        + " and " + vert2);
             }
+            putConnection(key, city1, city2, new Connection(city1, city2));
+            if (bridges != null) {
+                bridges.addEdge(city1.getId(), city2.getId());
+            }
+            markModified();
+        } finally {
+            lock.writeLock().unlock();
         }
     }
 
     @Override
-    public void addEdge(String vert1, String vert2) throws VertexDoesNotExistException, EdgeAlreadyExistsException {
-        if (!contains(vert1)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert1 + " in the graph");
+    public void removeEdge(String vert1, String vert2) throws VertexDoesNotExistException, EdgeDoesNotExistException {
+        lock.writeLock().lock();
+        try {
+            City city1 = getCity(vert1);
+            City city2 = getCity(vert2);
+            if (connections.remove(getEdgeKey(city1, city2)) == null) {
+                throw new EdgeDoesNotExistException("There is no connections between " + vert1 + " and " + vert2);
+            }
+            adjacency[city1.getId()].remove(city2.getId());
+            adjacency[city2.getId()].remove(city1.getId());
+            components = null;
+            if (bridges != null && !bridges.removeEdge(city1.getId(), city2.getId(), this::neighborIds)) {
+                bridges = null;
+            }
+            markModified();
+        } finally {
+            lock.writeLock().unlock();
         }
-        if (!contains(vert2)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert2 + " in the graph");
+    }
+
+    /**
+     * Answered by the union-find structure over the ids of the cities, which
+     * follows the added cities and connections and is only built again after
+     * something was removed from the graph
+     */
+    @Override
+    public boolean connected(String vert1, String vert2) throws VertexDoesNotExistException {
+        lock.readLock().lock();
+        try {
+            City city1 = getCity(vert1);
+            City city2 = getCity(vert2);
+            synchronized (componentsMonitor) {
+                return getComponents().connected(city1.getId(), city2.getId());
+            }
+        } finally {
+            lock.readLock().unlock();
         }
-        if (!connections.contains(Connection.getEmptyConnection(vert1, vert2))) {
-            connections.add(new Connection(new City(vert1), new City(vert2)));
-        } else {
-            throw new EdgeAlreadyExistsException("There already is a connection between " + vert1 + " and " + vert2);
+    }
+
+    @Override
+    public int getComponentCount() {
+        lock.readLock().lock();
+        try {
+            synchronized (componentsMonitor) {
+                return getComponents().getSetCount();
+            }
+        } finally {
+            lock.readLock().unlock();
         }
+    }
 
+    /**
+     * The union-find structure compresses it's paths on every query, so the
+     * readers take turns on it. It may only be used while holding the read
+     * lock and the monitor or the write lock.
+     */
+    private DisjointSet getComponents() {
+        if (components == null) {
+            DisjointSet rebuilt = new DisjointSet();
+            cityIds.forEach(rebuilt::add);
+            connections.values().forEach(connection
+                    -> rebuilt.union(connection.getToCity().getId(), connection.getFromCity().getId()));
+            components = rebuilt;
+        }
+        return components;
     }
 
-    @Override
-    public void removeEdge(String vert1, String vert2) throws VertexDoesNotExistException, EdgeDoesNotExistException {
-        if (!contains(vert1)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert1 + " in the graph");
+    /**
+     * The bridge index is built lazily and compresses it's paths on every
+     * query, so it changes even on reads. It may only be used while holding
+     * the write lock.
+     */
+    private BridgeIndex getBridges() {
+        if (bridges == null) {
+            bridges = buildBridgeIndex();
+        }
+        return bridges;
+    }
+
+    /**
+     * Checks if removing a connection would leave the route graph with more
+     * than one connected component. Cities that have no connections after the
+     * removal are thought of as removed too. The check is answered by the
+     * bridge index, which follows the added cities and connections and the
+     * removals of the remove command. After a removal only the
+     * 2-edge-connected component that held the removed connection is searched
+     * again. Other removals make the index be built again on the next check.
+     *
+     * @param vert1 The first city of the connection
+     * @param vert2 The second city of the connection
+     * @return true if the graph would become disconnected
+     * @throws VertexDoesNotExistException If one of the cities is not in the
+     * graph
+     * @throws EdgeDoesNotExistException If there is no connection between the
+     * cities
+     */
+    public boolean disconnectsOnRemoval(String vert1, String vert2)
+            throws VertexDoesNotExistException, EdgeDoesNotExistException {
+        lock.writeLock().lock();
+        try {
+            City city1 = getCity(vert1);
+            City city2 = getCity(vert2);
+            if (!connections.containsKey(getEdgeKey(city1, city2))) {
+                throw new EdgeDoesNotExistException("There is no connections between " + vert1 + " and " + vert2);
+            }
+            BridgeIndex index = getBridges();
+            int componentCount = index.getComponentCount();
+            if (index.isBridge(city1.getId(), city2.getId())) {
+                componentCount++;
+            }
+            if (adjacency[city1.getId()].size() == 1) {
+                componentCount--;
+            }
+            if (city1.getId() != city2.getId() && adjacency[city2.getId()].size() == 1) {
+                componentCount--;
+            }
+            return componentCount > 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives the ids of the neighbors of a city to the bridge index while the
+     * write lock is held
+     */
+    private int[] neighborIds(int id) {
+        Set<Integer> adjacent = adjacency[id];
+        int[] neighborIds = new int[adjacent.size()];
+        int i = 0;
+        for (int neighbor : adjacent) {
+            neighborIds[i++] = neighbor;
+        }
+        return neighborIds;
+    }
+
+    private BridgeIndex buildBridgeIndex() {
+        BridgeIndex index = new BridgeIndex();
+        cityIds.forEach(index::addVertex);
+        connections.values().forEach(connection
+                -> index.addEdge(connection.getToCity().getId(), connection.getFromCity().getId()));
+        return index;
+    }
+
+    /**
+     *
+     * @return A copy of all of the connections between cities in the route
+     * graph in the order in which they were added
+     */
+    public Collection<Connection> getConnections() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(connections.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the connection between two cities in constant time through the
+     * index of the connections
+     *
+     * @param vert1 The first city of the connection
+     * @param vert2 The second city of the connection
+     * @return The connection between the cities or null if there is none
+     * @throws VertexDoesNotExistException If one of the cities is not in the
+     * graph
+     */
+    public Connection getConnection(String vert1, String vert2) throws VertexDoesNotExistException {
+        lock.readLock().lock();
+        try {
+            City city1 = getCity(vert1);
+            City city2 = getCity(vert2);
+            return connections.get(getEdgeKey(city1, city2));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the connection between two cities by their ids, like the other
+     * getConnection
+     *
+     * @param city1 The id of the first city in the city dictionary
+     * @param city2 The id of the second city in the city dictionary
+     * @return The connection between the cities or null if there is none
+     * @throws VertexDoesNotExistException If one of the cities is not in the
+     * graph
+     */
+    public Connection getConnection(int city1, int city2) throws VertexDoesNotExistException {
+        lock.readLock().lock();
+        try {
+            return connections.get(getEdgeKey(getCity(city1), getCity(city2)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a connection with it's weights in one step. The cities are given
+     * by their ids in the city dictionary, so no names are looked up.
+     *
+     * @param city1 The id of the first city
+     * @param city2 The id of the second city
+     * @param distanceKm The distance between the cities in km
+     * @param distanceTime The time between the cities in min
+     * @throws VertexDoesNotExistException If one of the cities is not in the
+     * graph
+     * @throws EdgeAlreadyExistsException If the cities are already connected
+     */
+    public void addConnection(int city1, int city2, int distanceKm, int distanceTime)
+            throws VertexDoesNotExistException, EdgeAlreadyExistsException {
+
+        lock.writeLock().lock();
+        try {
+            City first = getCity(city1);
+            City second = getCity(city2);
+            Long key = getEdgeKey(first, second);
+            if (connections.containsKey(key)) {
+                throw new EdgeAlreadyExistsException("There already is a connection between " + first.getName()
+                        + " and " + second.getName());
+            }
+            putConnection(key, first, second, new Connection(first, second, distanceKm, distanceTime));
+            if (bridges != null) {
+                bridges.addEdge(first.getId(), second.getId());
+            }
+            markModified();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds cities and connections that were checked before, like the ones of
+     * a snapshot file. Nothing is checked again, so the cities have to be new
+     * and different and no pair of cities may be connected more than once.
+     * The connections are added in the order of the arrays. The bridge index
+     * is built again when it is needed.
+     *
+     * @param cityIds The ids of the names of the new cities in the city
+     * dictionary
+     * @param firstCities The first city of every connection as index into the
+     * city ids
+     * @param secondCities The second city of every connection as index into
+     * the city ids
+     * @param distances The distance of every connection in km
+     * @param times The time of every connection in min
+     * @param optimals The optimal value of every connection
+     * @param loaded The snapshot of the graph after the change. It is only
+     * taken if the graph was empty, so that it does not have to be built
+     * again
+     */
+    void load(int[] cityIds, int[] firstCities, int[] secondCities, int[] distances, int[] times,
+            int[] optimals, RouteGraphSnapshot loaded) {
+
+        lock.writeLock().lock();
+        try {
+            boolean wasEmpty = this.cityIds.isEmpty();
+            bridges = null;
+            City[] added = new City[cityIds.length];
+            for (int i = 0; i < cityIds.length; i++) {
+                added[i] = putCity(cityIds[i]);
+            }
+            for (int i = 0; i < firstCities.length; i++) {
+                City city1 = added[firstCities[i]];
+                City city2 = added[secondCities[i]];
+                Connection connection = new Connection(city1, city2, distances[i], times[i]);
+                connection.setOptimal(optimals[i]);
+                putConnection(getEdgeKey(city1, city2), city1, city2, connection);
+            }
+            markModified();
+            if (wasEmpty && lock.getWriteHoldCount() == 1) {
+                snapshot = loaded.withEpoch(modificationEpoch);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private City putCity(int id) {
+        City city = new City(dictionary.getName(id), id);
+        if (id >= citiesById.length) {
+            int length = Math.max(id + 1, citiesById.length * 2);
+            citiesById = Arrays.copyOf(citiesById, length);
+            adjacency = Arrays.copyOf(adjacency, length);
+        }
+        citiesById[id] = city;
+        cityIds.add(id);
+        adjacency[id] = new LinkedHashSet<>();
+        if (bridges != null) {
+            bridges.addVertex(id);
+        }
+        if (components != null) {
+            components.add(id);
+        }
+        return city;
+    }
+
+    private void putConnection(Long key, City city1, City city2, Connection connection) {
+        connections.put(key, connection);
+        adjacency[city1.getId()].add(city2.getId());
+        adjacency[city2.getId()].add(city1.getId());
+        if (components != null) {
+            components.union(city1.getId(), city2.getId());
+        }
+    }
+
+    /**
+     * Starts a change of the graph that takes more than one step. Other
+     * threads can not change the graph or read it's cities and connections
+     * until the change ends, but they still get the last snapshot from before
+     * the change. Changes can be nested and each of them has to be ended with
+     * endUpdate, best in a finally block.
+     */
+    public void beginUpdate() {
+        lock.writeLock().lock();
+    }
+
+    /**
+     * Ends a change of the graph. The snapshot of the new state is not built
+     * here, but by the next call of getSnapshot after the change.
+     */
+    public void endUpdate() {
+        lock.writeLock().unlock();
+    }
+
+    /**
+     * Reads the graph with more than one call while no other thread can
+     * change it
+     *
+     * @param <T> The type of the result
+     * @param reader Reads the graph
+     * @return The result of the reader
+     */
+    public <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Has to be called after every change of the graph, including changes of
+     * the weights of the connections, so that the cached snapshot is rebuilt.
+     * Changes of a graph that is shared between threads have to happen
+     * between beginUpdate and endUpdate.
+     */
+    public void markModified() {
+        modificationEpoch++;
+        changedEpochs.set(modificationEpoch);
+    }
+
+    /**
+     *
+     * @return A counter that grows with every modification of the graph
+     */
+    public long getModificationEpoch() {
+        return modificationEpoch;
+    }
+
+    /**
+     * Gives a read-optimized copy of the graph. The copy is rebuilt lazily, only
+     * when the graph was modified since the last call, by the first thread
+     * that asks for it after the change. It is built under the read lock, so
+     * other readers of the graph go on. The published snapshot is read
+     * without a lock. While another thread changes the graph or builds the
+     * new snapshot, the last published snapshot is given, unless the calling
+     * thread made a change itself that it does not hold yet. The thread that
+     * changes the graph gets a snapshot of it's changes, which is not
+     * published before the change ends.
+     *
+     * @return A snapshot of the current state of the graph
+     */
+    public RouteGraphSnapshot getSnapshot() {
+        RouteGraphSnapshot published = snapshot;
+        if (published != null && (published.getEpoch() == modificationEpoch
+                || lock.isWriteLocked() && !lock.isWriteLockedByCurrentThread())) {
+            return published;
+        }
+        lock.readLock().lock();
+        try {
+            if (lock.isWriteLockedByCurrentThread()) {
+                return buildSnapshot();
+            }
+            if (!snapshotBuild.tryLock()) {
+                published = snapshot;
+                if (published != null && changedEpochs.get() <= published.getEpoch()) {
+                    return published;
+                }
+                snapshotBuild.lock();
+            }
+            try {
+                if (snapshot == null || snapshot.getEpoch() != modificationEpoch) {
+                    snapshot = buildSnapshot();
+                }
+                return snapshot;
+            } finally {
+                snapshotBuild.unlock();
+            }
+        } finally {
+            lock.readLock().unlock();
         }
-        if (!contains(vert2)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert2 + " in the graph");
+    }
+
+    private RouteGraphSnapshot buildSnapshot() {
+        City[] ordered = new City[cityIds.size()];
+        int position = 0;
+        for (int id : cityIds) {
+            ordered[position++] = citiesById[id];
+        }
+        String[] names = new String[ordered.length];
+        int[] positions = new int[citiesById.length];
+        Arrays.fill(positions, -1);
+        int[] offsets = new int[ordered.length + 1];
+        int edges = 0;
+        for (int i = 0; i < ordered.length; i++) {
+            names[i] = ordered[i].getName();
+            positions[ordered[i].getId()] = i;
+            offsets[i] = edges;
+            edges += adjacency[ordered[i].getId()].size();
         }
-        if (!connections.remove(Connection.getEmptyConnection(vert1, vert2))) {
-            throw new EdgeDoesNotExistException("There is no connections between " + vert1 + " and " + vert2);
+        offsets[ordered.length] = edges;
+
+        int[] targets = new int[edges];
+        int[] distances = new int[edges];
+        int[] times = new int[edges];
+        int[] optimals = new int[edges];
+        int index = 0;
+        for (City city : ordered) {
+            for (int neighbor : adjacency[city.getId()]) {
+                Connection connection = connections.get(getEdgeKey(city.getId(), neighbor));
+                targets[index] = positions[neighbor];
+                distances[index] = connection.getDistance();
+                times[index] = connection.getTime();
+                optimals[index] = connection.getOptimal();
+                index++;
+            }
         }
+        return new RouteGraphSnapshot(modificationEpoch, names, dictionary, positions, offsets, targets, distances,
+                times, optimals);
+    }
+
+    /**
+     * The key of a connection in the index does not depend on the order of the
+     * cities as a connection between a and b is the same as the one between b
+     * and a. The pair of ids is multiplied with an odd constant, which keeps
+     * the keys of different pairs different, because the hash code of a Long
+     * of the plain pair would be the xor of the ids and many pairs would end
+     * up in the same bucket of the index.
+     *
+     * @param city1 The first city of the connection
+     * @param city2 The second city of the connection
+     * @return The key of the connection
+     */
+    private static Long getEdgeKey(City city1, City city2) {
+        return getEdgeKey(city1.getId(), city2.getId());
+    }
+
+    private static Long getEdgeKey(int id1, int id2) {
+        int low = Math.min(id1, id2);
+        int high = Math.max(id1, id2);
+        return (((long) low << 32) | high) * EDGE_KEY_MULTIPLIER;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Set<Integer>[] newAdjacency(int length) {
+        return new Set[length];
+    }
+
+    private City getCity(String vert) throws VertexDoesNotExistException {
+        City city = findCity(vert);
+        if (city == null) {
+            throw new VertexDoesNotExistException("There is no city with the name " + vert + " in the graph");
+        }
+        return city;
+    }
+
+    private City getCity(int id) throws VertexDoesNotExistException {
+        City city = findCity(id);
+        if (city == null) {
+            throw new VertexDoesNotExistException("There is no city with the id " + id + " in the graph");
+        }
+        return city;
+    }
+
+    private City findCity(String vert) {
+        return findCity(dictionary.find(vert));
+    }
+
+    private City findCity(int id) {
+        return id >= 0 && id < citiesById.length ? citiesById[id] : null;
     }
 
     /**
      *
-     * @return All of the connections between cities in the route graph
+     * @return The dictionary of the names of the cities of the graph. It keeps
+     * the names of removed cities, so they get their old ids when they are
+     * added again
      */
-    public List<Connection> getConnections() {
-        return connections;
+    public CityDictionary getDictionary() {
+        return dictionary;
     }
 
     /**
@@ -0,0 +1,368 @@
+package edu.kit.informatik.RouteGraph;
+
+import edu.kit.informatik.Exceptions.GraphParseException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Saves a route graph into a binary snapshot file and loads it back. The file
+ * holds the graph as it is kept in memory, so loading it only copies the
+ * mapped sections into arrays. The cities and the connections are not checked
+ * again, this was done before they were saved.
+ * <p>
+ * All numbers are little endian ints. The file starts with a header of six
+ * ints: the magic number, the version, the count of the cities, the count of
+ * the connections, the count of the edges of the adjacency, which has every
+ * connection once for each of it's cities, and the count of the bytes of the
+ * names. The sections follow in this order:
+ * <ul>
+ * <li>The offsets of the names, cities + 1 ints</li>
+ * <li>The names of the cities in UTF-8, padded with zeros to whole ints</li>
+ * <li>The ids of the cities sorted by the bytes of their names, cities
+ * ints</li>
+ * <li>The first cities, the second cities, the distances, the times and the
+ * optimal values of the connections in the order in which they were added,
+ * connections ints each</li>
+ * <li>The offsets of the adjacency of every city, cities + 1 ints</li>
+ * <li>The targets, the distances, the times and the optimal values of the
+ * edges of the adjacency, edges ints each</li>
+ * </ul>
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class RouteGraphFile {
+
+    /**
+     * The first int of every snapshot file, the bytes "NCRG"
+     */
+    public static final int MAGIC = 0x4752434E;
+
+    /**
+     * The version of the layout of the file
+     */
+    public static final int VERSION = 1;
+
+    private static final int HEADER_INTS = 6;
+    private static final int INT_BYTES = Integer.BYTES;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int CONNECTION_COLUMNS = 5;
+    private static final int EDGE_COLUMNS = 4;
+
+    /**
+     * The columns of the edges of the adjacency
+     */
+    static final int TARGETS = 0;
+    static final int DISTANCES = 1;
+    static final int TIMES = 2;
+    static final int OPTIMALS = 3;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private RouteGraphFile() {
+
+    }
+
+    /**
+     * Writes the graph into a snapshot file. The file is written next to the
+     * target and moved over it when it is complete, so a process that still
+     * maps the old file keeps reading the old one. The graph can not change
+     * while it is written.
+     *
+     * @param graph The graph that is saved
+     * @param file The path of the snapshot file
+     * @throws IOException If the file can not be written
+     */
+    public static void save(RouteGraph graph, String file) throws IOException {
+        Contents contents = graph.read(() -> new Contents(graph.getSnapshot(), graph.getConnections()));
+        Path target = Paths.get(file).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                write(contents, channel);
+                channel.force(false);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void write(Contents contents, FileChannel channel) throws IOException {
+        RouteGraphSnapshot snapshot = contents.snapshot;
+        int cityCount = snapshot.vertexCount();
+        int connectionCount = contents.connections.size();
+        int edgeCount = snapshot.getTargets().length;
+
+        byte[][] names = new byte[cityCount][];
+        int[] nameOffsets = new int[cityCount + 1];
+        for (int i = 0; i < cityCount; i++) {
+            names[i] = snapshot.getName(i).getBytes(StandardCharsets.UTF_8);
+            nameOffsets[i + 1] = nameOffsets[i] + names[i].length;
+        }
+        Integer[] sorted = new Integer[cityCount];
+        for (int i = 0; i < cityCount; i++) {
+            sorted[i] = i;
+        }
+        Arrays.sort(sorted, (id1, id2) -> compare(names[id1], names[id2]));
+
+        int[][] columns = new int[CONNECTION_COLUMNS][connectionCount];
+        int index = 0;
+        for (Connection connection : contents.connections) {
+            columns[0][index] = snapshot.getId(connection.getToCity().getId());
+            columns[1][index] = snapshot.getId(connection.getFromCity().getId());
+            columns[2][index] = connection.getDistance();
+            columns[3][index] = connection.getTime();
+            columns[4][index] = connection.getOptimal();
+            index++;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        putInts(channel, buffer, new int[] {MAGIC, VERSION, cityCount, connectionCount, edgeCount,
+            nameOffsets[cityCount]});
+        putInts(channel, buffer, nameOffsets);
+        for (byte[] name : names) {
+            putBytes(channel, buffer, name);
+        }
+        putBytes(channel, buffer, new byte[getPadding(nameOffsets[cityCount])]);
+        for (int id : sorted) {
+            putInt(channel, buffer, id);
+        }
+        for (int[] column : columns) {
+            putInts(channel, buffer, column);
+        }
+        putInts(channel, buffer, snapshot.getOffsets());
+        putInts(channel, buffer, snapshot.getTargets());
+        putInts(channel, buffer, snapshot.getDistanceWeights());
+        putInts(channel, buffer, snapshot.getTimeWeights());
+        putInts(channel, buffer, snapshot.getOptimalWeights());
+        drain(channel, buffer);
+    }
+
+    /**
+     * Loads a snapshot file into a graph, which should be empty. The sections
+     * of the file are mapped into memory and copied into the arrays of the
+     * graph and of it's first snapshot. Only the header and the size of the
+     * file are checked.
+     *
+     * @param file The path of the snapshot file
+     * @param graph The graph into which the file is loaded
+     * @return The graph
+     * @throws GraphParseException If the file can not be read or is not a
+     * snapshot file of this version
+     */
+    public static RouteGraph load(String file, RouteGraph graph) throws GraphParseException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            Layout layout = Layout.read(channel, file);
+            int cityCount = layout.getCityCount();
+            int[] nameOffsets = getInts(channel, layout.getNameOffsetsPosition(), cityCount + 1);
+            byte[] nameData = new byte[layout.getNameBytes()];
+            channel.map(FileChannel.MapMode.READ_ONLY, layout.getNamesPosition(), nameData.length).get(nameData);
+            CityDictionary dictionary = graph.getDictionary();
+            String[] names = new String[cityCount];
+            int[] cityIds = new int[cityCount];
+            for (int i = 0; i < cityCount; i++) {
+                cityIds[i] = dictionary.intern(new String(nameData, nameOffsets[i],
+                        nameOffsets[i + 1] - nameOffsets[i], StandardCharsets.UTF_8));
+                names[i] = dictionary.getName(cityIds[i]);
+            }
+            int[] positions = new int[dictionary.size()];
+            Arrays.fill(positions, -1);
+            for (int i = 0; i < cityCount; i++) {
+                positions[cityIds[i]] = i;
+            }
+
+            int[][] columns = new int[CONNECTION_COLUMNS][];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = getInts(channel, layout.getConnectionColumnPosition(i), layout.getConnectionCount());
+            }
+            int[] offsets = getInts(channel, layout.getOffsetsPosition(), cityCount + 1);
+            int[][] edges = new int[EDGE_COLUMNS][];
+            for (int i = 0; i < edges.length; i++) {
+                edges[i] = getInts(channel, layout.getEdgeColumnPosition(i), layout.getEdgeCount());
+            }
+
+            RouteGraphSnapshot loaded = new RouteGraphSnapshot(0, names, dictionary, positions, offsets,
+                    edges[TARGETS], edges[DISTANCES], edges[TIMES], edges[OPTIMALS]);
+            graph.load(cityIds, columns[0], columns[1], columns[2], columns[3], columns[4], loaded);
+        } catch (IOException ex) {
+            throw new GraphParseException("Cannot read the snapshot file " + file);
+        }
+        return graph;
+    }
+
+    private static int getPadding(int bytes) {
+        return (INT_BYTES - bytes % INT_BYTES) % INT_BYTES;
+    }
+
+    private static int[] getInts(FileChannel channel, long position, int count) throws IOException {
+        return new MappedInts(channel, position, count).toArray();
+    }
+
+    private static void putInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        for (int value : values) {
+            putInt(channel, buffer, value);
+        }
+    }
+
+    private static void putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < INT_BYTES) {
+            drain(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    private static void putBytes(FileChannel channel, ByteBuffer buffer, byte[] values) throws IOException {
+        int done = 0;
+        while (done < values.length) {
+            if (!buffer.hasRemaining()) {
+                drain(channel, buffer);
+            }
+            int length = Math.min(values.length - done, buffer.remaining());
+            buffer.put(values, done, length);
+            done += length;
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int compare(byte[] name1, byte[] name2) {
+        int length = Math.min(name1.length, name2.length);
+        for (int i = 0; i < length; i++) {
+            int difference = (name1[i] & 0xFF) - (name2[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return name1.length - name2.length;
+    }
+
+    /**
+     * The counts of the header of a snapshot file and the positions of the
+     * sections that follow from them
+     */
+    static final class Layout {
+
+        private final int cityCount;
+        private final int connectionCount;
+        private final int edgeCount;
+        private final int nameBytes;
+
+        private Layout(int cityCount, int connectionCount, int edgeCount, int nameBytes) {
+            this.cityCount = cityCount;
+            this.connectionCount = connectionCount;
+            this.edgeCount = edgeCount;
+            this.nameBytes = nameBytes;
+        }
+
+        /**
+         * Reads and checks the header of a snapshot file
+         *
+         * @param channel The snapshot file
+         * @param file The path of the file for the error messages
+         * @return The layout of the file
+         * @throws IOException If the file can not be read
+         * @throws GraphParseException If the file is not a snapshot file of
+         * this version or does not have the size that the header says
+         */
+        static Layout read(FileChannel channel, String file) throws IOException, GraphParseException {
+            long size = channel.size();
+            if (size < HEADER_INTS * INT_BYTES) {
+                throw notASnapshot(file);
+            }
+            int[] header = getInts(channel, 0, HEADER_INTS);
+            if (header[0] != MAGIC) {
+                throw notASnapshot(file);
+            }
+            if (header[1] != VERSION) {
+                throw new GraphParseException("The snapshot file " + file + " has the version " + header[1]
+                        + ", but only version " + VERSION + " can be read");
+            }
+            Layout layout = new Layout(header[2], header[3], header[4], header[5]);
+            if (layout.cityCount < 0 || layout.connectionCount < 0 || layout.edgeCount < 0
+                    || layout.nameBytes < 0 || size != layout.getEdgeColumnPosition(EDGE_COLUMNS)) {
+                throw notASnapshot(file);
+            }
+            return layout;
+        }
+
+        private static GraphParseException notASnapshot(String file) {
+            return new GraphParseException(file + " is not a snapshot file of a route graph");
+        }
+
+        int getCityCount() {
+            return cityCount;
+        }
+
+        int getConnectionCount() {
+            return connectionCount;
+        }
+
+        int getEdgeCount() {
+            return edgeCount;
+        }
+
+        int getNameBytes() {
+            return nameBytes;
+        }
+
+        long getNameOffsetsPosition() {
+            return HEADER_INTS * INT_BYTES;
+        }
+
+        long getNamesPosition() {
+            return getNameOffsetsPosition() + (cityCount + 1L) * INT_BYTES;
+        }
+
+        long getNameOrderPosition() {
+            return getNamesPosition() + nameBytes + getPadding(nameBytes);
+        }
+
+        long getConnectionColumnPosition(int column) {
+            return getNameOrderPosition() + ((long) cityCount + (long) column * connectionCount) * INT_BYTES;
+        }
+
+        long getOffsetsPosition() {
+            return getConnectionColumnPosition(CONNECTION_COLUMNS);
+        }
+
+        long getEdgeColumnPosition(int column) {
+            return getOffsetsPosition() + (cityCount + 1L + (long) column * edgeCount) * INT_BYTES;
+        }
+    }
+
+    /**
+     * The parts of the graph that are read together under one read lock
+     */
+    private static final class Contents {
+
+        private final RouteGraphSnapshot snapshot;
+        private final Collection<Connection> connections;
+
+        Contents(RouteGraphSnapshot snapshot, Collection<Connection> connections) {
+            this.snapshot = snapshot;
+            this.connections = connections;
+        }
+    }
+
+}
@@ -0,0 +1,255 @@
+package edu.kit.informatik.RouteGraph;
+
+import edu.kit.informatik.BasicGraphs.BlockCutTree;
+import edu.kit.informatik.BasicGraphs.CompactGraph;
+import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
+import java.util.Arrays;
+
+/**
+ * A frozen copy of a route graph in compressed sparse row layout. Every city
+ * gets a dense int id and the distance, time and optimal values of the
+ * connections are kept in primitive arrays parallel to the targets array, so
+ * the algorithms in GraphOperations can work on it without touching cities,
+ * connections or strings. Every connection is stored twice, once for each of
+ * its cities, in the order in which the neighbors of the city are returned by
+ * the route graph. The connected components are found once when the snapshot
+ * is made, so connectivity is answered by comparing two ints without any
+ * lock.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class RouteGraphSnapshot implements CompactGraph {
+
+    private final long epoch;
+    private final String[] names;
+    private final CityDictionary dictionary;
+    private final int[] positions;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] distances;
+    private final int[] times;
+    private final int[] optimals;
+    private final int[] components;
+    private final int componentCount;
+    private volatile BlockCutTree blockCutTree;
+
+    /**
+     * Creates a snapshot out of the already built arrays
+     *
+     * @param epoch The modification epoch of the graph that the snapshot shows
+     * @param names The names of the cities by their ids
+     * @param dictionary The city dictionary of the graph
+     * @param positions The ids of the cities in the snapshot by their ids in
+     * the dictionary, -1 for names that are not in the snapshot
+     * @param offsets The offsets of the edges of every city
+     * @param targets The cities to which the edges go
+     * @param distances The distance of every edge in km
+     * @param times The time of every edge in min
+     * @param optimals The optimal value of every edge
+     */
+    RouteGraphSnapshot(long epoch, String[] names, CityDictionary dictionary, int[] positions, int[] offsets,
+            int[] targets, int[] distances, int[] times, int[] optimals) {
+        this.epoch = epoch;
+        this.names = names;
+        this.dictionary = dictionary;
+        this.positions = positions;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.distances = distances;
+        this.times = times;
+        this.optimals = optimals;
+        this.components = new int[names.length];
+        this.componentCount = findComponents(offsets, targets, components);
+    }
+
+    private RouteGraphSnapshot(RouteGraphSnapshot snapshot, long epoch) {
+        this.epoch = epoch;
+        this.names = snapshot.names;
+        this.dictionary = snapshot.dictionary;
+        this.positions = snapshot.positions;
+        this.offsets = snapshot.offsets;
+        this.targets = snapshot.targets;
+        this.distances = snapshot.distances;
+        this.times = snapshot.times;
+        this.optimals = snapshot.optimals;
+        this.components = snapshot.components;
+        this.componentCount = snapshot.componentCount;
+    }
+
+    /**
+     * Gives the same snapshot for another modification epoch. The arrays are
+     * shared, not copied
+     *
+     * @param newEpoch The modification epoch of the graph that the snapshot
+     * shows
+     * @return The snapshot with the new epoch
+     */
+    RouteGraphSnapshot withEpoch(long newEpoch) {
+        return new RouteGraphSnapshot(this, newEpoch);
+    }
+
+    /**
+     * Numbers the connected components with a breadth first search from
+     * every city that has no component yet
+     *
+     * @return The count of the components
+     */
+    private static int findComponents(int[] offsets, int[] targets, int[] components) {
+        Arrays.fill(components, -1);
+        int[] queue = new int[components.length];
+        int count = 0;
+        for (int root = 0; root < components.length; root++) {
+            if (components[root] != -1) {
+                continue;
+            }
+            components[root] = count;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = root;
+            while (head < tail) {
+                int vert = queue[head++];
+                for (int edge = offsets[vert]; edge < offsets[vert + 1]; edge++) {
+                    if (components[targets[edge]] == -1) {
+                        components[targets[edge]] = count;
+                        queue[tail++] = targets[edge];
+                    }
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     *
+     * @return The modification epoch of the route graph at the time the
+     * snapshot was taken
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    @Override
+    public int vertexCount() {
+        return names.length;
+    }
+
+    @Override
+    public int[] getOffsets() {
+        return offsets;
+    }
+
+    @Override
+    public int[] getTargets() {
+        return targets;
+    }
+
+    /**
+     * The tree is built on the first call and kept for the lifetime of the
+     * snapshot, that is until the route graph is modified
+     */
+    @Override
+    public BlockCutTree getBlockCutTree() {
+        BlockCutTree tree = blockCutTree;
+        if (tree == null) {
+            tree = BlockCutTree.build(this);
+            blockCutTree = tree;
+        }
+        return tree;
+    }
+
+    /**
+     *
+     * @return The distance in km of every edge
+     */
+    public int[] getDistanceWeights() {
+        return distances;
+    }
+
+    /**
+     *
+     * @return The time in min of every edge
+     */
+    public int[] getTimeWeights() {
+        return times;
+    }
+
+    /**
+     *
+     * @return The optimal value of every edge
+     */
+    public int[] getOptimalWeights() {
+        return optimals;
+    }
+
+    /**
+     * Checks if there is a route between two cities of the snapshot
+     *
+     * @param id1 The id of the first city
+     * @param id2 The id of the second city
+     * @return true if both cities are in the same connected component
+     */
+    public boolean connected(int id1, int id2) {
+        return components[id1] == components[id2];
+    }
+
+    /**
+     *
+     * @return The count of the connected components of the snapshot
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Finds the id of a city
+     *
+     * @param name The name of the city
+     * @return The id of the city
+     * @throws VertexDoesNotExistException If there is no such city in the
+     * snapshot
+     */
+    public int getId(String name) throws VertexDoesNotExistException {
+        int id = getId(dictionary.find(name));
+        if (id < 0) {
+            throw new VertexDoesNotExistException("There is no vertex with the name " + name + " in the graph");
+        }
+        return id;
+    }
+
+    /**
+     *
+     * @param id The id of a city
+     * @return The name of the city
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * Finds the id of a city in the snapshot without looking up it's name
+     *
+     * @param cityId The id of the city in the city dictionary
+     * @return The id of the city in the snapshot or -1 if it is not in the
+     * snapshot
+     */
+    int getId(int cityId) {
+        return cityId >= 0 && cityId < positions.length ? positions[cityId] : -1;
+    }
+
+    /**
+     * Translates a path of ids back to the names of the cities
+     *
+     * @param path The ids of the cities on the path
+     * @return The names of the cities on the path
+     */
+    public Object[] getNames(int[] path) {
+        Object[] named = new Object[path.length];
+        for (int i = 0; i < path.length; i++) {
+            named[i] = names[path[i]];
+        }
+        return named;
+    }
+
+}
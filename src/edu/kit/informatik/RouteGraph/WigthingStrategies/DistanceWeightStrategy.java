@@ -2,6 +2,7 @@ package edu.kit.informatik.RouteGraph.WigthingStrategies;
 
 import edu.kit.informatik.RouteGraph.Connection;
 import edu.kit.informatik.RouteGraph.RouteGraph;
+import edu.kit.informatik.RouteGraph.RouteGraphSnapshot;
 
 /**
  *
@@ -30,4 +31,9 @@ public final class DistanceWeightStrategy extends RouteGraphWeighStrategy {
         return next.getDistance();
     }
 
+    @Override
+    public int[] getWeights(RouteGraphSnapshot snapshot) {
+        return snapshot.getDistanceWeights();
+    }
+
 }
@@ -1,8 +1,10 @@
 
 package edu.kit.informatik.RouteGraph.WigthingStrategies;
 
+import edu.kit.informatik.BasicGraphs.GraphOperations;
 import edu.kit.informatik.RouteGraph.Connection;
 import edu.kit.informatik.RouteGraph.RouteGraph;
+import edu.kit.informatik.RouteGraph.RouteGraphSnapshot;
 
 /**
  *
@@ -31,4 +33,19 @@ public final class OptimalWeightStrategy extends RouteGraphWeighStrategy {
         return next.getOptimal();
     }
 
+    @Override
+    public int[] getWeights(RouteGraphSnapshot snapshot) {
+        return snapshot.getOptimalWeights();
+    }
+
+    /**
+     * The optimal path is the first one of the best paths in depth first
+     * order, so it is searched in a way that gives the same result as
+     * enumerating all of the paths
+     */
+    @Override
+    protected int[] findPathDijkstra(RouteGraphSnapshot snapshot, int start, int end) {
+        return GraphOperations.getOptimalPathOrdered(snapshot, start, end, getWeights(snapshot));
+    }
+
 }
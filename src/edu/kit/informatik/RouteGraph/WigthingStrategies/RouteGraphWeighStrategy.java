@@ -1,10 +1,14 @@
 package edu.kit.informatik.RouteGraph.WigthingStrategies;
 
 import edu.kit.informatik.RouteGraph.Connection;
+import edu.kit.informatik.BasicGraphs.ContractionHierarchy;
+import edu.kit.informatik.BasicGraphs.DistanceTable;
+import edu.kit.informatik.BasicGraphs.GraphOperations;
 import edu.kit.informatik.BasicGraphs.GraphWeightStrategy;
+import edu.kit.informatik.BasicGraphs.LandmarkIndex;
 import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
 import edu.kit.informatik.RouteGraph.RouteGraph;
-import java.util.Iterator;
+import edu.kit.informatik.RouteGraph.RouteGraphSnapshot;
 
 /**
  *
@@ -13,7 +17,15 @@ import java.util.Iterator;
  */
 public abstract class RouteGraphWeighStrategy implements GraphWeightStrategy<String, RouteGraph> {
 
+    /**
+     * The count of the landmarks of the ALT search mode
+     */
+    private static final int LANDMARK_COUNT = 16;
+
     private final RouteGraph graph;
+    private final SnapshotIndex<ContractionHierarchy> hierarchy;
+    private final SnapshotIndex<LandmarkIndex> landmarks;
+    private final SnapshotIndex<DistanceTable> table;
 
     /**
      * Abstract weight strategy for a route graph
@@ -22,48 +34,177 @@ public abstract class RouteGraphWeighStrategy implements GraphWeightStrategy<Str
      */
     public RouteGraphWeighStrategy(RouteGraph graph) {
         this.graph = graph;
+        this.hierarchy = new SnapshotIndex<>(s -> ContractionHierarchy.build(s, getWeights(s)));
+        this.landmarks = new SnapshotIndex<>(s -> LandmarkIndex.build(s, getWeights(s), LANDMARK_COUNT),
+                this::refreshLandmarks);
+        this.table = new SnapshotIndex<>(s -> DistanceTable.build(s, getWeights(s)));
     }
 
     @Override
     public int getWeigth(String vert1, String vert2) throws VertexDoesNotExistException {
-        if (!graph.contains(vert1)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert1 + " in the graph");
+        Connection connection = graph.getConnection(vert1, vert2);
+        if (connection == null) {
+            return Integer.MAX_VALUE;
         }
-        if (!graph.contains(vert2)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert2 + " in the graph");
-        }
-        Iterator<Connection> it = getGraph().getConnections().iterator();
-        Connection temp = Connection.getEmptyConnection(vert1, vert2);
-        while (it.hasNext()) {
-            Connection next = it.next();
-            if (next.equals(temp)) {
-                return getConnectionWeigth(next);
-            }
+        return getConnectionWeigth(connection);
+    }
+
+    /**
+     * Gets the weight of a connection of the graph by the ids of it's cities,
+     * so no name is looked up
+     *
+     * @param city1 The id of the first city in the city dictionary of the
+     * graph
+     * @param city2 The id of the second city in the city dictionary of the
+     * graph
+     * @return The value of the weight or Integer.MAX_VALUE if the cities are
+     * not connected
+     * @throws VertexDoesNotExistException If one of the cities is not in the
+     * graph
+     */
+    public int getWeigth(int city1, int city2) throws VertexDoesNotExistException {
+        Connection connection = graph.getConnection(city1, city2);
+        if (connection == null) {
+            return Integer.MAX_VALUE;
         }
-        return Integer.MAX_VALUE;
+        return getConnectionWeigth(connection);
     }
 
     @Override
     public void setWeight(String vert1, String vert2, int weight) throws VertexDoesNotExistException {
-        if (!graph.contains(vert1)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert1 + " in the graph");
+        graph.beginUpdate();
+        try {
+            Connection connection = graph.getConnection(vert1, vert2);
+            if (connection != null) {
+                setConnectionWeigth(connection, weight);
+                graph.markModified();
+            }
+        } finally {
+            graph.endUpdate();
+        }
+
+    }
+
+    /**
+     * Finds the best path between two cities of a snapshot of the graph. The
+     * search mode is chosen by the caller, so every user of the graph can
+     * search in it's own way, while the indexes of the modes are built once
+     * for the graph.
+     *
+     * @param snapshot The snapshot of the graph
+     * @param start The id of the first city
+     * @param end The id of the last city
+     * @param searchMode The way in which the path is searched
+     * @return The ids of the cities on the path or null if there is no path
+     */
+    public int[] findPath(RouteGraphSnapshot snapshot, int start, int end, SearchMode searchMode) {
+        switch (searchMode) {
+            case BIDIRECTIONAL:
+                return GraphOperations.getOptimalPathBidirectional(snapshot, start, end, getWeights(snapshot));
+            case CONTRACTION_HIERARCHY:
+                ContractionHierarchy current = hierarchy.get(snapshot);
+                if (current != null) {
+                    return current.findPath(start, end);
+                }
+                return findPathDijkstra(snapshot, start, end);
+            case ALT:
+                LandmarkIndex currentLandmarks = landmarks.getNow(snapshot);
+                if (currentLandmarks != null) {
+                    return GraphOperations.getOptimalPathALT(snapshot, start, end, getWeights(snapshot),
+                            currentLandmarks);
+                }
+                return findPathDijkstra(snapshot, start, end);
+            case DFS:
+                return GraphOperations.getOptimalPathDFSParallel(snapshot, start, end, getWeights(snapshot));
+            case TABLE:
+                DistanceTable currentTable = table.get(snapshot);
+                if (currentTable != null) {
+                    return currentTable.findPath(start, end);
+                }
+                return findPathDijkstra(snapshot, start, end);
+            default:
+                return findPathDijkstra(snapshot, start, end);
         }
-        if (!graph.contains(vert2)) {
-            throw new VertexDoesNotExistException("There is no city with the name " + vert2 + " in the graph");
+    }
+
+    /**
+     * Prepares the index of a search mode for a snapshot of the graph before
+     * a group of searches, so they do not wait for each other to build it. The
+     * landmarks of the ALT search mode are built or refreshed before this
+     * method returns, the contraction hierarchy and the distance tables start
+     * building in the background. The other modes have no index.
+     *
+     * @param snapshot The snapshot of the graph
+     * @param searchMode The way in which the paths will be searched
+     */
+    public void prepareIndex(RouteGraphSnapshot snapshot, SearchMode searchMode) {
+        switch (searchMode) {
+            case CONTRACTION_HIERARCHY:
+                hierarchy.get(snapshot);
+                break;
+            case ALT:
+                landmarks.getNow(snapshot);
+                break;
+            case TABLE:
+                table.get(snapshot);
+                break;
+            default:
+                break;
         }
+    }
+
+    /**
+     * Gives the tables of the best paths between all pairs of cities that the
+     * table search mode uses. Starts building them in the background if they
+     * were not built for the snapshot yet.
+     *
+     * @param snapshot The snapshot of the graph
+     * @return The tables or null if they are not ready yet or the graph is too
+     * big for them
+     */
+    public DistanceTable getDistanceTable(RouteGraphSnapshot snapshot) {
+        return table.get(snapshot);
+    }
 
-        Iterator<Connection> it = getGraph().getConnections().iterator();
-        Connection temp = Connection.getEmptyConnection(vert1, vert2);
-        while (it.hasNext()) {
-            Connection next = it.next();
-            if (next.equals(temp)) {
-                setConnectionWeigth(next, weight);
-                return;
+    /**
+     * Refreshes the landmarks when the graph only grew since they were built.
+     * The cities keep their ids in this case as new cities are added to the
+     * end of the snapshot.
+     */
+    private LandmarkIndex refreshLandmarks(LandmarkIndex previous, RouteGraphSnapshot previousSnapshot,
+            RouteGraphSnapshot snapshot) {
+        if (snapshot.vertexCount() < previousSnapshot.vertexCount()) {
+            return null;
+        }
+        for (int id = 0; id < previousSnapshot.vertexCount(); id++) {
+            if (!previousSnapshot.getName(id).equals(snapshot.getName(id))) {
+                return null;
             }
         }
+        return previous.refresh(previousSnapshot, getWeights(previousSnapshot), snapshot, getWeights(snapshot));
+    }
 
+    /**
+     * Finds the best path between two cities of a snapshot of the graph with a
+     * single Dijkstra search
+     *
+     * @param snapshot The snapshot of the graph
+     * @param start The id of the first city
+     * @param end The id of the last city
+     * @return The ids of the cities on the path or null if there is no path
+     */
+    protected int[] findPathDijkstra(RouteGraphSnapshot snapshot, int start, int end) {
+        return GraphOperations.getOptimalPathDijkstra(snapshot, start, end, getWeights(snapshot));
     }
 
+    /**
+     *
+     * @param snapshot A snapshot of the graph
+     * @return The weights of the edges of the snapshot according to this
+     * strategy
+     */
+    public abstract int[] getWeights(RouteGraphSnapshot snapshot);
+
     /**
      * Sets a weight of the connection between two cities
      *
@@ -0,0 +1,73 @@
+package edu.kit.informatik.RouteGraph.WigthingStrategies;
+
+/**
+ * The ways in which a weighting strategy of a route graph can search for the
+ * best path between two cities
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public enum SearchMode {
+
+    /**
+     * A single Dijkstra search from the start city
+     */
+    DIJKSTRA("dijkstra"),
+    /**
+     * Two Dijkstra searches, one from the start and one from the end city,
+     * that meet in the middle
+     */
+    BIDIRECTIONAL("bidirectional"),
+    /**
+     * An upward search from both cities in a contraction hierarchy of the
+     * graph. While the hierarchy is being (re)built the Dijkstra search is used
+     */
+    CONTRACTION_HIERARCHY("ch"),
+    /**
+     * An A* search that estimates the remaining distance with the distances
+     * to a few landmark cities
+     */
+    ALT("alt"),
+    /**
+     * Tries out all paths between the cities on all cores and takes the best
+     * one. Only usable for small maps
+     */
+    DFS("dfs"),
+    /**
+     * Looks up the path in tables of the best paths between all pairs of
+     * cities. The tables are (re)built in the background after every change
+     * of the graph and only for graphs with up to DistanceTable.MAX_VERTICES
+     * cities, until then the Dijkstra search is used
+     */
+    TABLE("table");
+
+    private final String name;
+
+    SearchMode(String name) {
+        this.name = name;
+    }
+
+    /**
+     *
+     * @return The name of the mode as used in the commands
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds a search mode by it's name
+     *
+     * @param name The name of the mode
+     * @return The mode or null if there is no mode with this name
+     */
+    public static SearchMode fromName(String name) {
+        for (SearchMode mode : values()) {
+            if (mode.name.equals(name)) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,166 @@
+package edu.kit.informatik.RouteGraph.WigthingStrategies;
+
+import edu.kit.informatik.RouteGraph.RouteGraphSnapshot;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Keeps a search index (like a contraction hierarchy) that was built for one
+ * snapshot of a route graph. When the graph changes the index becomes stale
+ * and a new one is built in the background, the searches have to fall back to
+ * something slower until it is ready. At most one build runs at a time. The
+ * snapshots that are asked for while it runs are not built one after the
+ * other, only the newest of them is built when the running build ends.
+ * Indexes that are cheap to bring up to date can instead be refreshed on the
+ * spot out of the stale index.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ * @param <T> The type of the index
+ */
+final class SnapshotIndex<T> {
+
+    private final Function<RouteGraphSnapshot, T> builder;
+    private final Refresher<T> refresher;
+    private final AtomicReference<RouteGraphSnapshot> building;
+    private volatile RouteGraphSnapshot wanted;
+    private volatile Built<T> current;
+
+    /**
+     *
+     * @param builder Builds the index for a snapshot. May return null if no
+     * index can be built for the snapshot
+     */
+    SnapshotIndex(Function<RouteGraphSnapshot, T> builder) {
+        this(builder, (previous, previousSnapshot, snapshot) -> null);
+    }
+
+    /**
+     *
+     * @param builder Builds the index for a snapshot. May return null if no
+     * index can be built for the snapshot
+     * @param refresher Brings a stale index up to date for a newer snapshot
+     */
+    SnapshotIndex(Function<RouteGraphSnapshot, T> builder, Refresher<T> refresher) {
+        this.builder = builder;
+        this.refresher = refresher;
+        this.building = new AtomicReference<>();
+    }
+
+    /**
+     * Gives the index if it was built for the given snapshot. Otherwise starts
+     * building it in the background, or after the build that is running now
+     * if no newer snapshot is asked for until then
+     *
+     * @param snapshot The current snapshot of the graph
+     * @return The index or null if it is not ready yet
+     */
+    T get(RouteGraphSnapshot snapshot) {
+        Built<T> built = current;
+        if (built != null && built.source == snapshot) {
+            return built.index;
+        }
+        RouteGraphSnapshot latest = wanted;
+        if (latest == null || latest.getEpoch() < snapshot.getEpoch()) {
+            wanted = snapshot;
+        }
+        if (building.compareAndSet(null, snapshot)) {
+            CompletableFuture.runAsync(() -> buildLatest(snapshot));
+        }
+        return null;
+    }
+
+    /**
+     * Builds the index for the newest snapshot that was asked for until no
+     * snapshot is left for which there is no index. Only the thread that set
+     * the building snapshot runs this.
+     */
+    private void buildLatest(RouteGraphSnapshot first) {
+        RouteGraphSnapshot snapshot = first;
+        while (snapshot != null) {
+            RouteGraphSnapshot latest = wanted;
+            if (latest != null && latest.getEpoch() > snapshot.getEpoch()) {
+                snapshot = latest;
+                building.set(snapshot);
+            }
+            try {
+                publish(snapshot, builder.apply(snapshot));
+            } finally {
+                building.set(null);
+            }
+            RouteGraphSnapshot next = wanted;
+            Built<T> built = current;
+            snapshot = next != null && (built == null || built.source != next)
+                    && building.compareAndSet(null, next) ? next : null;
+        }
+    }
+
+    /**
+     * Gives the index for the given snapshot. A stale index is refreshed or
+     * rebuilt before this method returns
+     *
+     * @param snapshot The current snapshot of the graph
+     * @return The index or null if no index can be built for the snapshot
+     */
+    synchronized T getNow(RouteGraphSnapshot snapshot) {
+        Built<T> built = current;
+        if (built != null && built.source == snapshot) {
+            return built.index;
+        }
+        T index = null;
+        if (built != null && built.index != null) {
+            index = refresher.refresh(built.index, built.source, snapshot);
+        }
+        if (index == null) {
+            index = builder.apply(snapshot);
+        }
+        publish(snapshot, index);
+        return index;
+    }
+
+    /**
+     * Keeps the index unless an index for a newer snapshot is kept already
+     */
+    private synchronized void publish(RouteGraphSnapshot snapshot, T built) {
+        Built<T> previous = current;
+        if (previous == null || previous.source.getEpoch() <= snapshot.getEpoch()) {
+            current = new Built<>(snapshot, built);
+        }
+    }
+
+    /**
+     * Brings an index up to date for a newer snapshot of the same graph
+     *
+     * @param <T> The type of the index
+     */
+    @FunctionalInterface
+    interface Refresher<T> {
+
+        /**
+         *
+         * @param previous The stale index
+         * @param previousSnapshot The snapshot for which the stale index was
+         * built
+         * @param snapshot The current snapshot
+         * @return The refreshed index or null if it can not be refreshed and
+         * has to be built again
+         */
+        T refresh(T previous, RouteGraphSnapshot previousSnapshot, RouteGraphSnapshot snapshot);
+    }
+
+    /**
+     * An index together with the snapshot for which it was built
+     */
+    private static final class Built<T> {
+
+        private final RouteGraphSnapshot source;
+        private final T index;
+
+        Built(RouteGraphSnapshot source, T index) {
+            this.source = source;
+            this.index = index;
+        }
+    }
+
+}
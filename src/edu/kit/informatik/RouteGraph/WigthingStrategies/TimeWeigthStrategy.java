@@ -2,6 +2,7 @@ package edu.kit.informatik.RouteGraph.WigthingStrategies;
 
 import edu.kit.informatik.RouteGraph.Connection;
 import edu.kit.informatik.RouteGraph.RouteGraph;
+import edu.kit.informatik.RouteGraph.RouteGraphSnapshot;
 
 /**
  *
@@ -29,4 +30,10 @@ public final class TimeWeigthStrategy extends RouteGraphWeighStrategy {
     protected int getConnectionWeigth(Connection next) {
         return next.getTime();
     }
+
+    @Override
+    public int[] getWeights(RouteGraphSnapshot snapshot) {
+        return snapshot.getTimeWeights();
+    }
+
 }
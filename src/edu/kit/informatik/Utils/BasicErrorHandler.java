@@ -5,30 +5,44 @@
  */
 package edu.kit.informatik.Utils;
 
-import edu.kit.informatik.Terminal;
+import java.nio.charset.Charset;
 
 /**
  *
  * @author Stanislav
  * @version 0.0.42
  */
-public final class BasicErrorHandler implements ErrorHandler {
+public final class BasicErrorHandler implements CommandOutput {
+
+    private final StreamOutput console;
 
     /**
-     * Makes a error handler that takes care of basic errors. Just prints them on the screen
+     * Makes a error handler that takes care of basic errors. Just prints them on the screen.
+     * The lines are buffered and only printed when the output is flushed
      */
     public BasicErrorHandler() {
+        console = new StreamOutput(System.out, Charset.defaultCharset());
+    }
+
+    @Override
+    public void printLine(String line) {
+        console.printLine(line);
     }
 
     @Override
     public void handelException(Exception ex) {
-        Terminal.printLine("Error, " + ex.getMessage());
+        console.handelException(ex);
     }
 
     @Override
     public void printErrorMessage(String msg) {
-        Terminal.printLine("Error, " + msg);
+        console.printErrorMessage(msg);
 
     }
 
+    @Override
+    public void flush() {
+        console.flush();
+    }
+
 }
@@ -0,0 +1,50 @@
+package edu.kit.informatik.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the output of a command in memory, so that commands that run at the
+ * same time can write their output out in the order in which they were given.
+ * The lines can be added from several threads.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class BufferedOutput implements CommandOutput {
+
+    private final List<String> lines;
+
+    /**
+     * Creates an empty buffer
+     */
+    public BufferedOutput() {
+        lines = new ArrayList<>();
+    }
+
+    @Override
+    public synchronized void printLine(String line) {
+        lines.add(line);
+    }
+
+    @Override
+    public void handelException(Exception ex) {
+        printLine("Error, " + ex.getMessage());
+    }
+
+    @Override
+    public void printErrorMessage(String msg) {
+        printLine("Error, " + msg);
+    }
+
+    /**
+     * Writes the kept lines to another output and forgets them
+     *
+     * @param output The output to which the lines are written
+     */
+    public synchronized void writeTo(CommandOutput output) {
+        lines.forEach(output::printLine);
+        lines.clear();
+    }
+
+}
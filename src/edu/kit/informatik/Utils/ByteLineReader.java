@@ -0,0 +1,155 @@
+package edu.kit.informatik.Utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a channel as ranges of bytes in one buffer that is used
+ * again and again, so no strings are made for the lines and only the part of
+ * the input that is in the buffer is in memory. The lines end like the lines
+ * of a BufferedReader, with a line feed, a carriage return or both. The
+ * buffer only grows if a single line does not fit into it.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+final class ByteLineReader implements Closeable {
+
+    private static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final ReadableByteChannel channel;
+    private byte[] data;
+    private long dataOffset;
+    private int head;
+    private int tail;
+    private int scanned;
+    private int lineStart;
+    private int lineEnd;
+    private boolean endOfInput;
+    private boolean skipLineFeed;
+
+    /**
+     *
+     * @param channel The channel from which the lines are read
+     */
+    ByteLineReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        this.data = new byte[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Moves to the next line. The bytes of the line are valid until the next
+     * call
+     *
+     * @return false if there are no more lines
+     * @throws IOException If the channel can not be read
+     */
+    boolean nextLine() throws IOException {
+        while (true) {
+            if (skipLineFeed && head < tail) {
+                if (data[head] == LINE_FEED) {
+                    head++;
+                }
+                skipLineFeed = false;
+                scanned = Math.max(scanned, head);
+            }
+            for (int i = scanned; i < tail; i++) {
+                byte value = data[i];
+                if (value == LINE_FEED || value == CARRIAGE_RETURN) {
+                    lineStart = head;
+                    lineEnd = i;
+                    head = i + 1;
+                    scanned = head;
+                    skipLineFeed = value == CARRIAGE_RETURN;
+                    return true;
+                }
+            }
+            scanned = tail;
+            if (endOfInput) {
+                if (head == tail) {
+                    return false;
+                }
+                lineStart = head;
+                lineEnd = tail;
+                head = tail;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        int kept = tail - head;
+        if (kept == data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        } else if (head > 0) {
+            System.arraycopy(data, head, data, 0, kept);
+        }
+        scanned -= head;
+        dataOffset += head;
+        head = 0;
+        tail = kept;
+        int read = channel.read(ByteBuffer.wrap(data, tail, data.length - tail));
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            tail += read;
+        }
+    }
+
+    /**
+     * Gives the position of the next line in the channel. The line feed after
+     * a carriage return at the end of the current line is skipped first
+     *
+     * @return The count of the bytes of the channel before the next line
+     * @throws IOException If the channel can not be read
+     */
+    long getOffset() throws IOException {
+        if (skipLineFeed && head == tail && !endOfInput) {
+            fill();
+        }
+        if (skipLineFeed && head < tail) {
+            if (data[head] == LINE_FEED) {
+                head++;
+            }
+            skipLineFeed = false;
+            scanned = Math.max(scanned, head);
+        }
+        return dataOffset + head;
+    }
+
+    /**
+     *
+     * @return The buffer that holds the current line
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     *
+     * @return The index of the first byte of the current line in the buffer
+     */
+    int getLineStart() {
+        return lineStart;
+    }
+
+    /**
+     *
+     * @return The index after the last byte of the current line in the buffer
+     */
+    int getLineEnd() {
+        return lineEnd;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
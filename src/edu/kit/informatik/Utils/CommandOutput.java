@@ -0,0 +1,26 @@
+package edu.kit.informatik.Utils;
+
+/**
+ * Takes the output of a command, the normal lines as well as the errors
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public interface CommandOutput extends ErrorHandler {
+
+    /**
+     * Takes a line of the normal output of a command
+     *
+     * @param line The line
+     */
+    void printLine(String line);
+
+    /**
+     * Sends the output that was taken so far on. It is called after every
+     * command, outputs that do not keep anything back do not have to do
+     * anything
+     */
+    default void flush() {
+    }
+
+}
@@ -0,0 +1,293 @@
+package edu.kit.informatik.Utils;
+
+import edu.kit.informatik.Exceptions.GraphParseException;
+import edu.kit.informatik.RouteGraph.CityDictionary;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The connections of one part of the connection section of a map file. A part
+ * starts at the beginning of a line and ends at the end of a line, so the
+ * parts can be read on different threads. The connections are kept as the ids
+ * of their cities in the city dictionary and their two weights. Reading stops at the first line that
+ * is wrong on it's own, like a line with a missing field or an unknown city.
+ * Connections that occur twice are only found when the parts are added to the
+ * graph in the order of the file.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+final class ConnectionChunk {
+
+    private static final int FIELD_COUNT = 4;
+    private static final String FIELD_SEPARATOR = ";";
+
+    /**
+     * The count of the ints of one connection in the array of the connections
+     */
+    static final int VALUES_PER_CONNECTION = 4;
+
+    private int[] connections;
+    private int connectionCount;
+    private GraphParseException error;
+    private boolean hasLines;
+    private boolean endsWithEmptyLines;
+
+    private ConnectionChunk() {
+        connections = new int[64];
+    }
+
+    /**
+     * Reads the connections of a part of a file
+     *
+     * @param channel The file. It is only read at given positions, so many
+     * parts can be read at the same time
+     * @param start The position of the first byte of the part
+     * @param end The position after the last byte of the part
+     * @param dictionary The city dictionary of the graph
+     * @param listed Tells for the id of every city in the dictionary if the
+     * city is in the city section of the file
+     * @return The connections of the part
+     * @throws IOException If the file can not be read
+     */
+    static ConnectionChunk parse(FileChannel channel, long start, long end, CityDictionary dictionary,
+            boolean[] listed) throws IOException {
+
+        ConnectionChunk chunk = new ConnectionChunk();
+        int emptyLines = 0;
+        try (ByteLineReader reader = new ByteLineReader(new RangeChannel(channel, start, end))) {
+            while (chunk.error == null && reader.nextLine()) {
+                int lineStart = reader.getLineStart();
+                int lineEnd = reader.getLineEnd();
+                if (lineStart == lineEnd) {
+                    emptyLines++;
+                    continue;
+                }
+                chunk.hasLines = true;
+                if (emptyLines > 0) {
+                    chunk.error = RouteGraphParser.badConnection();
+                } else {
+                    chunk.parseLine(reader.getData(), lineStart, lineEnd, dictionary, listed);
+                }
+            }
+        }
+        chunk.endsWithEmptyLines = chunk.error == null && emptyLines > 0;
+        return chunk;
+    }
+
+    private void parseLine(byte[] data, int start, int end, CityDictionary dictionary, boolean[] listed) {
+        try {
+            if (isAscii(data, start, end)) {
+                parseConnection(data, start, end, dictionary, listed);
+            } else {
+                parseConnection(new String(data, start, end - start, Charset.defaultCharset()), dictionary,
+                        listed);
+            }
+        } catch (NumberFormatException ex) {
+            error = RouteGraphParser.badNumber();
+        } catch (GraphParseException ex) {
+            error = ex;
+        }
+    }
+
+    private void parseConnection(String line, CityDictionary dictionary, boolean[] listed)
+            throws GraphParseException {
+
+        String connectionData[] = line.split(FIELD_SEPARATOR);
+        if (connectionData.length != FIELD_COUNT) {
+            throw RouteGraphParser.badConnection();
+        }
+        int distanceKm = Integer.parseInt(connectionData[2]);
+        int distanceTime = Integer.parseInt(connectionData[3]);
+        add(getId(connectionData[0], dictionary, listed), getId(connectionData[1], dictionary, listed),
+                distanceKm, distanceTime);
+    }
+
+    /**
+     * Splits the line at the semicolons like String.split does, without
+     * making strings of the fields that are numbers
+     */
+    private void parseConnection(byte[] data, int start, int end, CityDictionary dictionary, boolean[] listed)
+            throws GraphParseException {
+
+        int[] starts = new int[FIELD_COUNT];
+        int[] ends = new int[FIELD_COUNT];
+        int fields = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || data[i] == ';') {
+                if (fields < FIELD_COUNT) {
+                    starts[fields] = fieldStart;
+                    ends[fields] = i;
+                    fields++;
+                } else if (i > fieldStart) {
+                    throw RouteGraphParser.badConnection();
+                }
+                fieldStart = i + 1;
+            }
+        }
+        while (fields > 0 && starts[fields - 1] == ends[fields - 1]) {
+            fields--;
+        }
+        if (fields != FIELD_COUNT) {
+            throw RouteGraphParser.badConnection();
+        }
+        int distanceKm = parseInt(data, starts[2], ends[2]);
+        int distanceTime = parseInt(data, starts[3], ends[3]);
+        add(getId(toAsciiString(data, starts[0], ends[0], true), dictionary, listed),
+                getId(toAsciiString(data, starts[1], ends[1], true), dictionary, listed), distanceKm, distanceTime);
+    }
+
+    private static int getId(String city, CityDictionary dictionary, boolean[] listed)
+            throws GraphParseException {
+
+        int id = dictionary.find(city);
+        if (id < 0 || id >= listed.length || !listed[id]) {
+            throw RouteGraphParser.unknownCity();
+        }
+        return id;
+    }
+
+    private void add(int city1, int city2, int distanceKm, int distanceTime) {
+        int index = connectionCount * VALUES_PER_CONNECTION;
+        if (index == connections.length) {
+            connections = Arrays.copyOf(connections, connections.length * 2);
+        }
+        connections[index] = city1;
+        connections[index + 1] = city2;
+        connections[index + 2] = distanceKm;
+        connections[index + 3] = distanceTime;
+        connectionCount++;
+    }
+
+    /**
+     *
+     * @return The count of the connections that were read
+     */
+    int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     *
+     * @return The ids of the two cities and the distance and the time of
+     * every connection, one after the other
+     */
+    int[] getConnections() {
+        return connections;
+    }
+
+    /**
+     *
+     * @return The first error of the part or null. All connections of the part
+     * come before the error
+     */
+    GraphParseException getError() {
+        return error;
+    }
+
+    /**
+     *
+     * @return true if the part has a line that is not empty
+     */
+    boolean hasLines() {
+        return hasLines;
+    }
+
+    /**
+     *
+     * @return true if the part ends with empty lines. They are only wrong if
+     * another line follows them in one of the next parts
+     */
+    boolean endsWithEmptyLines() {
+        return endsWithEmptyLines;
+    }
+
+    /**
+     * Reads plain numbers of up to nine digits directly, everything else like
+     * signs or too long numbers is left to Integer.parseInt
+     */
+    private static int parseInt(byte[] data, int start, int end) {
+        if (end - start < 1 || end - start > 9) {
+            return Integer.parseInt(toAsciiString(data, start, end, false));
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Integer.parseInt(toAsciiString(data, start, end, false));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    static String toAsciiString(byte[] data, int start, int end, boolean lowerCase) {
+        if (lowerCase) {
+            for (int i = start; i < end; i++) {
+                if (data[i] >= 'A' && data[i] <= 'Z') {
+                    data[i] += 'a' - 'A';
+                }
+            }
+        }
+        return new String(data, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    static boolean isAscii(byte[] data, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (data[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a range of a file channel at given positions, so it does not move
+     * the position of the channel. Closing it does not close the file channel.
+     */
+    private static final class RangeChannel implements ReadableByteChannel {
+
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        RangeChannel(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(ByteBuffer target) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int limit = target.limit();
+            if (end - position < target.remaining()) {
+                target.limit(target.position() + (int) (end - position));
+            }
+            int read = channel.read(target, position);
+            target.limit(limit);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
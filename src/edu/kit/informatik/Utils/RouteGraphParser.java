@@ -4,9 +4,23 @@ import edu.kit.informatik.Exceptions.EdgeAlreadyExistsException;
 import edu.kit.informatik.Exceptions.GraphParseException;
 import edu.kit.informatik.Exceptions.VertexAlreadyExistsException;
 import edu.kit.informatik.Exceptions.VertexDoesNotExistException;
+import edu.kit.informatik.RouteGraph.CityDictionary;
 import edu.kit.informatik.RouteGraph.Connection;
 import edu.kit.informatik.RouteGraph.RouteGraph;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *
@@ -15,6 +29,10 @@ import java.util.List;
  */
 public final class RouteGraphParser implements GraphParser<String, RouteGraph> {
 
+    private static final String SEPARATOR = "--";
+    private static final long CHUNK_SIZE = 1 << 23;
+    private static final int ALIGN_WINDOW = 256;
+
     /**
      *
      * Basic parser that can read a route graph out of a file
@@ -25,74 +43,261 @@ public final class RouteGraphParser implements GraphParser<String, RouteGraph> {
 
     }
 
+    /**
+     * Reads the file as a stream of bytes. The cities are read one line after
+     * the other. The connection section is cut into parts at the ends of
+     * lines and the parts are read in parallel, the connections are then
+     * added to the graph part by part in the order of the file. Errors are
+     * reported for the first wrong line of the file, just as if the file was
+     * read line by line. Only the names of the cities are made into strings,
+     * the lines are split and the numbers are read directly from the bytes.
+     * The rare lines with bytes outside of ASCII are decoded and read like
+     * before.
+     */
     @Override
     public RouteGraph deserialize(String file, RouteGraph graph) throws GraphParseException {
 
-        try {
-            String fileLines[] = FileInputHelper.read(file);
-            int index = 1;
-            String line = fileLines[0];
-            while (!line.equals("--")) {
-                if (!isValidCityName(line)) {
-                    throw new GraphParseException(line + " is not a valid city name. "
-                            + "These name should match " + RouteGraph.CITY_NAME_PATTERN);
+        graph.beginUpdate();
+        try (FileChannel channel = new FileInputStream(file).getChannel();
+                ByteLineReader reader = new ByteLineReader(channel)) {
+            CityDictionary dictionary = graph.getDictionary();
+            List<Integer> cityIds = new ArrayList<>();
+            boolean separatorFound = false;
+            int emptyLines = 0;
+            while (!separatorFound && reader.nextLine()) {
+                byte[] data = reader.getData();
+                int start = reader.getLineStart();
+                int end = reader.getLineEnd();
+                if (start == end) {
+                    emptyLines++;
+                    continue;
                 }
-                graph.addVertex(line.toLowerCase());
-                line = fileLines[index];
-                index++;
-            }
-            while (index < fileLines.length) {
-                line = fileLines[index];
-
-                String connectionData[] = line.split(";");
-                if (connectionData.length != 4) {
-                    throw new GraphParseException("Error when parsing the input file."
-                            + " A connection between cities should be descrebed"
-                            + " like <City1>;<City2>;<Dostance in km>;<Distance in m>");
-
+                if (emptyLines > 0) {
+                    parseCity(graph, "", cityIds);
+                }
+                if (isSeparator(data, start, end)) {
+                    separatorFound = true;
+                } else {
+                    parseCity(graph, data, start, end, cityIds);
                 }
-                final int distanceKm = Integer.parseInt(connectionData[2]);
-                final int distanceTime = Integer.parseInt(connectionData[3]);
-                final String vert1 = connectionData[0].toLowerCase();
-                final String vert2 = connectionData[1].toLowerCase();
-
-                graph.addEdge(vert1, vert2);
-                graph.getDistanceStrategy().setWeight(vert1, vert2, distanceKm);
-                graph.getTimeStrategy().setWeight(vert1, vert2, distanceTime);
-                graph.getOptimalStrategy().setWeight(vert1, vert2,
-                        RouteGraph.getOptimalWeigthRule(distanceKm, distanceTime));
-
-                index++;
             }
+            if (!separatorFound) {
+                throw new GraphParseException("Error when parsing the input file. The cities and the connections"
+                        + " should be separated by " + SEPARATOR);
+            }
+            boolean[] listed = new boolean[dictionary.size()];
+            cityIds.forEach(id -> listed[id] = true);
+            addConnections(graph, channel, reader.getOffset(), channel.size(), listed);
 
+        } catch (IOException ex) {
+            throw new GraphParseException(ex.getMessage());
         } catch (VertexAlreadyExistsException ex) {
             throw new GraphParseException("Error when parsing the input file. Duplicate vertex was found");
         } catch (VertexDoesNotExistException ex) {
-            throw new GraphParseException("Error when parsing the input file. Not existent city in the connection"
-                    + " description was found");
-        } catch (NumberFormatException ex) {
-            throw new GraphParseException("Error when parsing the input file. Bad input for a integer value");
+            throw unknownCity();
         } catch (EdgeAlreadyExistsException ex) {
             throw new GraphParseException("Error while parsing the input file. "
                     + "An edge occurse tweice in the given graph");
+        } finally {
+            graph.endUpdate();
         }
 
         return graph;
     }
 
+    private void parseCity(RouteGraph graph, byte[] data, int start, int end, List<Integer> cityIds)
+            throws GraphParseException, VertexAlreadyExistsException {
+
+        if (!ConnectionChunk.isAscii(data, start, end)) {
+            parseCity(graph, new String(data, start, end - start, Charset.defaultCharset()), cityIds);
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            if (!isCityNameByte(data[i])) {
+                parseCity(graph, ConnectionChunk.toAsciiString(data, start, end, false), cityIds);
+                return;
+            }
+        }
+        addCity(graph, ConnectionChunk.toAsciiString(data, start, end, true), cityIds);
+    }
+
+    private void parseCity(RouteGraph graph, String line, List<Integer> cityIds)
+            throws GraphParseException, VertexAlreadyExistsException {
+
+        if (!isValidCityName(line)) {
+            throw new GraphParseException(line + " is not a valid city name. "
+                    + "These name should match " + RouteGraph.CITY_NAME_PATTERN);
+        }
+        addCity(graph, line, cityIds);
+    }
+
+    private void addCity(RouteGraph graph, String name, List<Integer> cityIds)
+            throws VertexAlreadyExistsException {
+
+        graph.addVertex(name);
+        cityIds.add(graph.getDictionary().find(name));
+    }
+
+    /**
+     * Reads the parts of the connection section in parallel and adds their
+     * connections to the graph in order. Only a limited number of parts is
+     * read ahead, so the memory for the connections that wait to be added
+     * stays limited too. A section of only one part is read on the calling
+     * thread.
+     */
+    private void addConnections(RouteGraph graph, FileChannel channel, long start, long end, boolean[] listed)
+            throws IOException, GraphParseException, VertexDoesNotExistException, EdgeAlreadyExistsException {
+
+        CityDictionary dictionary = graph.getDictionary();
+        int maxPending = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+        Deque<CompletableFuture<ConnectionChunk>> pending = new ArrayDeque<>();
+        long next = start;
+        boolean emptyLinesBefore = false;
+        try {
+            while (next < end || !pending.isEmpty()) {
+                while (next < end && pending.size() < maxPending) {
+                    long chunkStart = next;
+                    long chunkEnd = alignToLine(channel, chunkStart + CHUNK_SIZE, end);
+                    next = chunkEnd;
+                    if (chunkStart == start && chunkEnd == end) {
+                        pending.add(CompletableFuture.completedFuture(
+                                ConnectionChunk.parse(channel, chunkStart, chunkEnd, dictionary, listed)));
+                    } else {
+                        pending.add(CompletableFuture.supplyAsync(
+                                () -> parseChunk(channel, chunkStart, chunkEnd, dictionary, listed)));
+                    }
+                }
+                ConnectionChunk chunk = join(pending.poll());
+                if (chunk.hasLines() && emptyLinesBefore) {
+                    throw badConnection();
+                }
+                int[] connections = chunk.getConnections();
+                int values = chunk.getConnectionCount() * ConnectionChunk.VALUES_PER_CONNECTION;
+                for (int i = 0; i < values; i += ConnectionChunk.VALUES_PER_CONNECTION) {
+                    graph.addConnection(connections[i], connections[i + 1], connections[i + 2], connections[i + 3]);
+                }
+                if (chunk.getError() != null) {
+                    throw chunk.getError();
+                }
+                emptyLinesBefore = chunk.endsWithEmptyLines() || emptyLinesBefore && !chunk.hasLines();
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private static ConnectionChunk parseChunk(FileChannel channel, long start, long end,
+            CityDictionary dictionary, boolean[] listed) {
+        try {
+            return ConnectionChunk.parse(channel, start, end, dictionary, listed);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static ConnectionChunk join(CompletableFuture<ConnectionChunk> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Finds the start of the first line that starts at the position or after
+     * it. A line feed right after a carriage return belongs to the line before
+     */
+    private static long alignToLine(FileChannel channel, long position, long end) throws IOException {
+        if (position >= end) {
+            return end;
+        }
+        ByteBuffer window = ByteBuffer.allocate(ALIGN_WINDOW);
+        long offset = position - 1;
+        while (offset < end) {
+            window.clear();
+            int read = channel.read(window, offset);
+            if (read <= 0) {
+                return end;
+            }
+            for (int i = 0; i < read && offset + i < end; i++) {
+                byte value = window.get(i);
+                if (value == '\n') {
+                    return offset + i + 1;
+                }
+                if (value == '\r') {
+                    long following = offset + i + 1;
+                    if (following < end && readByte(channel, window, i + 1, read, following) == '\n') {
+                        following++;
+                    }
+                    return following;
+                }
+            }
+            offset += read;
+        }
+        return end;
+    }
+
+    private static byte readByte(FileChannel channel, ByteBuffer window, int index, int read, long position)
+            throws IOException {
+        if (index < read) {
+            return window.get(index);
+        }
+        ByteBuffer single = ByteBuffer.allocate(1);
+        channel.read(single, position);
+        return single.get(0);
+    }
+
+    /**
+     *
+     * @return The error of a connection line that does not have four fields
+     */
+    static GraphParseException badConnection() {
+        return new GraphParseException("Error when parsing the input file."
+                + " A connection between cities should be descrebed"
+                + " like <City1>;<City2>;<Dostance in km>;<Distance in m>");
+    }
+
+    /**
+     *
+     * @return The error of a connection with a city that is not in the file
+     */
+    static GraphParseException unknownCity() {
+        return new GraphParseException("Error when parsing the input file. Not existent city in the connection"
+                + " description was found");
+    }
+
+    /**
+     *
+     * @return The error of a connection with a weight that is not a number
+     */
+    static GraphParseException badNumber() {
+        return new GraphParseException("Error when parsing the input file. Bad input for a integer value");
+    }
+
+    private static boolean isSeparator(byte[] data, int start, int end) {
+        return end - start == 2 && data[start] == '-' && data[start + 1] == '-';
+    }
+
+    private static boolean isCityNameByte(byte value) {
+        return value >= 'a' && value <= 'z' || value >= 'A' && value <= 'Z' || value == '-';
+    }
+
     @Override
     public String[] serialize(RouteGraph graph) {
 
         List<String> cities = graph.vertices();
-        List<Connection> connections = graph.getConnections();
+        Collection<Connection> connections = graph.getConnections();
         String lines[] = new String[cities.size() + connections.size() + 1];
         int index = 0;
         while (index < cities.size()) {
             lines[index] = cities.get(index++);
         }
-        lines[index++] = "--";
-        while (index - cities.size() - 1 < connections.size()) {
-            lines[index] = connections.get(index++ - cities.size() - 1).toString();
+        lines[index++] = SEPARATOR;
+        for (Connection connection : connections) {
+            lines[index++] = connection.toString();
         }
 
         return lines;
@@ -0,0 +1,130 @@
+package edu.kit.informatik.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Writes the output of commands to a byte stream. The lines are encoded into
+ * one byte buffer that is used again and again, and the buffer is only
+ * written to the stream when it is full or when the output is flushed, which
+ * should happen once after every command. So a command that prints many lines
+ * costs a few writes to the stream instead of one for every line. Errors of
+ * the stream are not thrown, like in a PrintStream they are remembered and
+ * can be checked with checkError.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class StreamOutput implements CommandOutput {
+
+    /**
+     * The size of the buffer in bytes if no other is given
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final OutputStream stream;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer buffer;
+    private final String lineSeparator;
+    private boolean failed;
+
+    /**
+     *
+     * @param stream The stream to which the output is written
+     * @param charset The charset in which the lines are encoded
+     */
+    public StreamOutput(OutputStream stream, Charset charset) {
+        this(stream, charset, DEFAULT_CAPACITY);
+    }
+
+    /**
+     *
+     * @param stream The stream to which the output is written
+     * @param charset The charset in which the lines are encoded
+     * @param capacity The size of the buffer in bytes
+     */
+    public StreamOutput(OutputStream stream, Charset charset, int capacity) {
+        if (capacity < 16) {
+            throw new IllegalArgumentException("The buffer has to have at least 16 bytes");
+        }
+        this.stream = stream;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.buffer = ByteBuffer.allocate(capacity);
+        this.lineSeparator = System.lineSeparator();
+    }
+
+    @Override
+    public synchronized void printLine(String line) {
+        encode(line);
+        encode(lineSeparator);
+    }
+
+    @Override
+    public void handelException(Exception ex) {
+        printLine("Error, " + ex.getMessage());
+    }
+
+    @Override
+    public void printErrorMessage(String msg) {
+        printLine("Error, " + msg);
+    }
+
+    /**
+     * Writes the buffered bytes to the stream and flushes the stream
+     */
+    @Override
+    public synchronized void flush() {
+        drain();
+        if (!failed) {
+            try {
+                stream.flush();
+            } catch (IOException ex) {
+                failed = true;
+            }
+        }
+    }
+
+    /**
+     *
+     * @return true if writing to the stream failed at some point. The output
+     * after the failure is lost
+     */
+    public synchronized boolean checkError() {
+        return failed;
+    }
+
+    private void encode(String text) {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        CoderResult result = encoder.encode(chars, buffer, true);
+        while (result.isOverflow()) {
+            drain();
+            result = encoder.encode(chars, buffer, true);
+        }
+        result = encoder.flush(buffer);
+        while (result.isOverflow()) {
+            drain();
+            result = encoder.flush(buffer);
+        }
+    }
+
+    private void drain() {
+        if (buffer.position() > 0 && !failed) {
+            try {
+                stream.write(buffer.array(), 0, buffer.position());
+            } catch (IOException ex) {
+                failed = true;
+            }
+        }
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,231 @@
+package edu.kit.informatik.Utils;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache with W-TinyLFU admission. New entries go into a small LRU
+ * window. Entries that drop out of the window only make it into the main part
+ * of the cache if they were asked for more often than the entry that would
+ * have to leave the main part for them. How often a key was asked for is
+ * estimated with a count-min sketch of small counters that are halved from
+ * time to time, so old popularity fades away. The main part is a segmented LRU:
+ * entries start in the probation segment and move to the protected segment
+ * when they are hit again.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ * @param <K> The type of the keys
+ * @param <V> The type of the values
+ */
+public final class TinyLfuCache<K, V> {
+
+    private final int windowCapacity;
+    private final int protectedCapacity;
+    private final int mainCapacity;
+    private final LinkedHashMap<K, V> window;
+    private final LinkedHashMap<K, V> probation;
+    private final LinkedHashMap<K, V> protectedSegment;
+    private final FrequencySketch sketch;
+    private long hits;
+    private long misses;
+
+    /**
+     *
+     * @param capacity The most entries that the cache keeps
+     */
+    public TinyLfuCache(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("The capacity of the cache has to be at least 2");
+        }
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+        this.window = new LinkedHashMap<>(16, 0.75f, true);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * Looks up a key and counts the access for the admission of the key
+     *
+     * @param key The key
+     * @return The cached value or null if the key is not in the cache
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+        V value = window.get(key);
+        if (value == null) {
+            value = protectedSegment.get(key);
+        }
+        if (value == null) {
+            value = probation.remove(key);
+            if (value != null) {
+                protectedSegment.put(key, value);
+                if (protectedSegment.size() > protectedCapacity) {
+                    Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+            }
+        }
+        if (value == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return value;
+    }
+
+    /**
+     * Puts a value into the cache. It may be dropped right away or later if
+     * other keys are asked for more often
+     *
+     * @param key The key
+     * @param value The value
+     */
+    public synchronized void put(K key, V value) {
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+        window.put(key, value);
+        if (window.size() > windowCapacity) {
+            admit(removeEldest(window));
+        }
+    }
+
+    private void admit(Map.Entry<K, V> candidate) {
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        LinkedHashMap<K, V> victims = probation.isEmpty() ? protectedSegment : probation;
+        K victim = victims.keySet().iterator().next();
+        if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> entries = segment.entrySet().iterator();
+        Map.Entry<K, V> eldest = entries.next();
+        Map.Entry<K, V> copy = new AbstractMap.SimpleImmutableEntry<>(eldest);
+        entries.remove();
+        return copy;
+    }
+
+    /**
+     * Removes all entries. The counted frequencies of the keys and the hit and
+     * miss counters are kept
+     */
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    /**
+     *
+     * @return The count of the entries in the cache
+     */
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     *
+     * @return How many times a key was found in the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     *
+     * @return How many times a key was not found in the cache
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Count-min sketch with four rows of counters that saturate at 15. After
+     * ten times as many increments as there are counters in a row all counters
+     * are halved.
+     */
+    private static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int MAX_COUNT = 15;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[][] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int width = Integer.highestOneBit(Math.max(16, capacity - 1) * 2);
+            this.counters = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = indexOf(hash, row);
+                if (counters[row][index] < MAX_COUNT) {
+                    counters[row][index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, counters[row][indexOf(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int indexOf(int hash, int row) {
+            int mixed = (hash ^ SEEDS[row]) * SEEDS[row];
+            return (mixed ^ (mixed >>> 16)) & mask;
+        }
+
+        private void reset() {
+            for (byte[] row : counters) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] >>= 1;
+                }
+            }
+            additions /= 2;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x45D9F3B;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package edu.kit.informatik.Utils;
+
+import java.io.PrintWriter;
+
+/**
+ * Writes the output of commands to a character stream, for example to the
+ * connection of a client. The errors are written in the same form as on the
+ * console. The writer is not flushed after every line, this is left to the
+ * one that runs the commands.
+ *
+ * @author Stanislav
+ * @version 0.0.42
+ */
+public final class WriterOutput implements CommandOutput {
+
+    private final PrintWriter writer;
+
+    /**
+     *
+     * @param writer The stream to which the output is written
+     */
+    public WriterOutput(PrintWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void printLine(String line) {
+        writer.println(line);
+    }
+
+    @Override
+    public void handelException(Exception ex) {
+        printLine("Error, " + ex.getMessage());
+    }
+
+    @Override
+    public void printErrorMessage(String msg) {
+        printLine("Error, " + msg);
+    }
+
+    /**
+     * Sends the written lines on
+     */
+    @Override
+    public void flush() {
+        writer.flush();
+    }
+
+    /**
+     *
+     * @return true if writing to the stream failed at some point. The output
+     * after the failure is lost
+     */
+    public boolean checkError() {
+        return writer.checkError();
+    }
+
+}